@@ -0,0 +1,61 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+
+/**
+ * Serialising the session listing body, with an ObjectMapper configured like the one Spring Boot builds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SessionJsonBenchmark {
+    @Param({"10", "100", "1000"})
+    private int sessions;
+
+    @Param({"0", "20"})
+    private int participants;
+
+    private ObjectWriter writer;
+    private List<SessionDto> sessionDtos;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, SessionDto.class));
+
+        LocalDateTime now = LocalDateTime.now();
+        sessionDtos = new ArrayList<>(sessions);
+        for (long id = 1; id <= sessions; id++) {
+            List<Long> userIds = new ArrayList<>(participants);
+            for (long userId = 1; userId <= participants; userId++) {
+                userIds.add(userId);
+            }
+            sessionDtos.add(new SessionDto(id, "Session " + id, new Date(), id % 10 + 1,
+                    "A session to practise the basics of yoga, number " + id, userIds, 30, 1L, now, now));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeSessionList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(sessionDtos);
+    }
+}
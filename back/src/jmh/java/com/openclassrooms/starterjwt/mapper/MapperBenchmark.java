@@ -0,0 +1,147 @@
+package com.openclassrooms.starterjwt.mapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.TeacherDto;
+import com.openclassrooms.starterjwt.dto.UserDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.UserService;
+
+/**
+ * The MapStruct mappers on their own. The services behind SessionMapper.toEntity answer from memory, so only the
+ * mapping and the id resolution logic are measured, not the queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+    @Param({"0", "10", "100"})
+    private int participants;
+
+    private SessionMapperImpl sessionMapper;
+    private UserMapper userMapper;
+    private TeacherMapper teacherMapper;
+
+    private Session session;
+    private SessionDto sessionDto;
+    private List<Long> participantIds;
+    private Map<Long, Teacher> teachers;
+    private Map<Long, User> users;
+    private User user;
+    private UserDto userDto;
+    private Teacher teacher;
+    private TeacherDto teacherDto;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        teacher = Teacher.builder().id(1L).firstName("Margot").lastName("Delahaye").createdAt(now).updatedAt(now).build();
+        teachers = new HashMap<>();
+        teachers.put(teacher.getId(), teacher);
+
+        users = new HashMap<>();
+        participantIds = new ArrayList<>();
+        List<User> participantList = new ArrayList<>();
+        for (long id = 1; id <= participants; id++) {
+            User participant = new User(id, "user" + id + "@studio.com", "Last" + id, "First" + id, "password", false, now, now);
+            users.put(id, participant);
+            participantIds.add(id);
+            participantList.add(participant);
+        }
+        user = new User(1L, "yoga@studio.com", "Studio", "Yoga", "password", true, now, now);
+
+        sessionMapper = new SessionMapperImpl();
+        sessionMapper.teacherService = new TeacherService(null) {
+            @Override
+            public Teacher getReference(Long id) {
+                return teachers.get(id);
+            }
+        };
+        sessionMapper.userService = new UserService(null, null, null) {
+            @Override
+            public Map<Long, User> findByIds(Collection<Long> ids) {
+                Map<Long, User> found = new HashMap<>();
+                ids.forEach(id -> found.put(id, users.get(id)));
+                return found;
+            }
+        };
+        userMapper = new UserMapperImpl();
+        teacherMapper = new TeacherMapperImpl();
+
+        session = Session.builder()
+                .id(1L)
+                .name("Morning flow")
+                .date(new Date())
+                .description("A gentle session to start the day")
+                .teacher(teacher)
+                .users(participantList)
+                .capacity(participants + 10)
+                .version(3L)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        sessionDto = sessionMapper.toDto(session);
+        userDto = userMapper.toDto(user);
+        teacherDto = teacherMapper.toDto(teacher);
+    }
+
+    @Benchmark
+    public SessionDto sessionToDto() {
+        return sessionMapper.toDto(session);
+    }
+
+    @Benchmark
+    public SessionDto sessionToDtoWithParticipantIds() {
+        return sessionMapper.toDto(session, participantIds);
+    }
+
+    @Benchmark
+    public Session sessionToEntity() {
+        return sessionMapper.toEntity(sessionDto);
+    }
+
+    @Benchmark
+    public Session sessionToEntityWithPreloadedReferences() {
+        return sessionMapper.toEntity(sessionDto, teachers, users);
+    }
+
+    @Benchmark
+    public UserDto userToDto() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public User userToEntity() {
+        return userMapper.toEntity(userDto);
+    }
+
+    @Benchmark
+    public TeacherDto teacherToDto() {
+        return teacherMapper.toDto(teacher);
+    }
+
+    @Benchmark
+    public Teacher teacherToEntity() {
+        return teacherMapper.toEntity(teacherDto);
+    }
+}
@@ -0,0 +1,133 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+
+/**
+ * Seeds users, teachers, sessions and enrolments through the application's batched repositories and services, so it
+ * works on whichever database the context points at. The same seed always produces the same data.
+ */
+public class DataGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(DataGenerator.class);
+
+    private static final int CHUNK_SIZE = 500;
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    private final UserRepository userRepository;
+    private final SessionService sessionService;
+    private final TeacherRepository teacherRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    public DataGenerator(ApplicationContext context) {
+        this.userRepository = context.getBean(UserRepository.class);
+        this.sessionService = context.getBean(SessionService.class);
+        this.teacherRepository = context.getBean(TeacherRepository.class);
+        this.passwordEncoder = context.getBean(PasswordEncoder.class);
+    }
+
+    public SeededData generate(LoadTestOptions options) {
+        Random random = new Random(options.getSeed());
+        long start = System.nanoTime();
+
+        // Every user shares the password, so it is hashed once rather than once per row
+        String hash = passwordEncoder.encode(options.getPassword());
+        List<User> users = new ArrayList<>(options.getUsers());
+        for (int from = 0; from < options.getUsers(); from += CHUNK_SIZE) {
+            List<User> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int i = from; i < Math.min(from + CHUNK_SIZE, options.getUsers()); i++) {
+                chunk.add(new User(email(options.getSeed(), i), "Load" + i, "User" + i, hash, false));
+            }
+            users.addAll(userRepository.saveAll(chunk));
+        }
+
+        List<Teacher> teachers = new ArrayList<>(options.getTeachers());
+        for (int i = 0; i < options.getTeachers(); i++) {
+            teachers.add(Teacher.builder().firstName("Teacher" + i).lastName("Load").build());
+        }
+        teachers = teacherRepository.saveAll(teachers);
+
+        int enrolments = Math.min(options.getEnrolmentsPerSession(), users.size());
+        long now = System.currentTimeMillis();
+        List<Long> sessionIds = new ArrayList<>(options.getSessions());
+        for (int from = 0; from < options.getSessions(); from += CHUNK_SIZE) {
+            List<Session> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int i = from; i < Math.min(from + CHUNK_SIZE, options.getSessions()); i++) {
+                chunk.add(Session.builder()
+                        .name("Load session " + i)
+                        .date(new Date(now + random.nextInt(90) * DAY_MS))
+                        .description("Generated session " + i + " for load testing")
+                        .teacher(teachers.isEmpty() ? null : teachers.get(random.nextInt(teachers.size())))
+                        .users(pick(users, enrolments, random))
+                        .capacity(enrolments + options.getFreeSeats())
+                        .build());
+            }
+            sessionService.saveAll(chunk).forEach(session -> sessionIds.add(session.getId()));
+        }
+
+        logger.info("Seeded {} users, {} teachers, {} sessions and {} enrolments in {}ms", users.size(), teachers.size(),
+                sessionIds.size(), (long) sessionIds.size() * enrolments,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        List<String> emails = new ArrayList<>(users.size());
+        users.forEach(user -> emails.add(user.getEmail()));
+        return new SeededData(emails, sessionIds);
+    }
+
+    /**
+     * Emails of the users seeded with this seed, for runs against a database populated earlier.
+     */
+    public static List<String> emails(LoadTestOptions options) {
+        List<String> emails = new ArrayList<>(options.getUsers());
+        for (int i = 0; i < options.getUsers(); i++) {
+            emails.add(email(options.getSeed(), i));
+        }
+        return emails;
+    }
+
+    private static String email(long seed, int index) {
+        return "load" + index + "-" + seed + "@loadtest.com";
+    }
+
+    private static List<User> pick(List<User> users, int count, Random random) {
+        Set<User> picked = new LinkedHashSet<>(count);
+        while (picked.size() < count) {
+            picked.add(users.get(random.nextInt(users.size())));
+        }
+        return new ArrayList<>(picked);
+    }
+
+    public static class SeededData {
+        private final List<String> emails;
+        private final List<Long> sessionIds;
+
+        public SeededData(List<String> emails, List<Long> sessionIds) {
+            this.emails = emails;
+            this.sessionIds = sessionIds;
+        }
+
+        public List<String> getEmails() {
+            return emails;
+        }
+
+        public List<Long> getSessionIds() {
+            return sessionIds;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.benchmark.LatencyRecorder;
+import com.openclassrooms.starterjwt.loadtest.LoadTestOptions.Scenario;
+
+import okhttp3.ConnectionPool;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Closed-loop driver: each thread logs in as its own user, then runs scenarios picked by weight back to back until
+ * the run ends. Requests completed during warm-up are not recorded.
+ */
+public class LoadDriver {
+    private static final Logger logger = LoggerFactory.getLogger(LoadDriver.class);
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private final LoadTestOptions options;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OkHttpClient client;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    private final PoolMonitor poolMonitor;
+
+    private volatile boolean recording;
+
+    /**
+     * @param poolMonitor follows the connection pool during the measured part of the run, or null when the server
+     *                    runs in another process
+     */
+    public LoadDriver(LoadTestOptions options, String baseUrl, PoolMonitor poolMonitor) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.poolMonitor = poolMonitor;
+        this.client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(options.getThreads(), 5, TimeUnit.MINUTES))
+                .readTimeout(30, TimeUnit.SECONDS)
+                .build();
+    }
+
+    public LoadReport run(List<String> emails, List<Long> sessionIds) throws Exception {
+        if (sessionIds == null) {
+            sessionIds = listSessionIds(login(emails.get(0)).token);
+        }
+        if (sessionIds.isEmpty() && (options.getMix().containsKey(Scenario.GET) || options.getMix().containsKey(Scenario.PARTICIPATE))) {
+            throw new IllegalStateException("There are no sessions to read or enrol in");
+        }
+
+        List<Worker> workers = new ArrayList<>(options.getThreads());
+        for (int i = 0; i < options.getThreads(); i++) {
+            workers.add(new Worker(emails.get(i % emails.size()), sessionIds, new Random(options.getSeed() + i)));
+        }
+
+        CountDownLatch done = new CountDownLatch(workers.size());
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.getWarmupSeconds() + options.getDurationSeconds());
+        for (int i = 0; i < workers.size(); i++) {
+            Worker worker = workers.get(i);
+            Thread thread = new Thread(() -> {
+                try {
+                    worker.run(end);
+                } finally {
+                    done.countDown();
+                }
+            }, "load-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        logger.info("Warming up for {}s with {} threads", options.getWarmupSeconds(), options.getThreads());
+        TimeUnit.SECONDS.sleep(options.getWarmupSeconds());
+        recording = true;
+        if (poolMonitor != null) {
+            poolMonitor.start();
+        }
+        logger.info("Measuring for {}s", options.getDurationSeconds());
+        long start = System.nanoTime();
+        done.await();
+        recording = false;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (poolMonitor != null) {
+            poolMonitor.stop();
+        }
+
+        client.connectionPool().evictAll();
+        return new LoadReport(options, seconds, new TreeMap<>(stats), poolMonitor != null ? poolMonitor.getResult() : null);
+    }
+
+    private List<Long> listSessionIds(String token) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (Response response = client.newCall(new Request.Builder()
+                .url(baseUrl + "/api/session")
+                .header("Authorization", "Bearer " + token)
+                .build()).execute()) {
+            for (JsonNode session : objectMapper.readTree(response.body().string())) {
+                ids.add(session.get("id").asLong());
+            }
+        }
+        return ids;
+    }
+
+    private Login login(String email) throws IOException {
+        String body = objectMapper.createObjectNode().put("email", email).put("password", options.getPassword()).toString();
+        try (Response response = client.newCall(new Request.Builder()
+                .url(baseUrl + "/api/auth/login")
+                .post(RequestBody.create(JSON, body))
+                .build()).execute()) {
+            if (response.code() != 200) {
+                throw new IllegalStateException("Login of " + email + " failed with status " + response.code());
+            }
+            JsonNode jwt = objectMapper.readTree(response.body().string());
+            return new Login(jwt.get("token").asText(), jwt.get("id").asLong());
+        }
+    }
+
+    private static final class Login {
+        private final String token;
+        private final long userId;
+
+        private Login(String token, long userId) {
+            this.token = token;
+            this.userId = userId;
+        }
+    }
+
+    private final class Worker {
+        private final String email;
+        private final List<Long> sessionIds;
+        private final Random random;
+        private final int totalWeight;
+
+        private Login login;
+
+        private Worker(String email, List<Long> sessionIds, Random random) {
+            this.email = email;
+            this.sessionIds = sessionIds;
+            this.random = random;
+            this.totalWeight = options.getMix().values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        private void run(long end) {
+            try {
+                login = login(email);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Worker for {} could not log in: {}", email, e.getMessage());
+                return;
+            }
+
+            while (System.nanoTime() < end) {
+                switch (pick()) {
+                    case LIST:
+                        call("GET /api/session", get("/api/session"));
+                        break;
+                    case GET:
+                        call("GET /api/session/{id}", get("/api/session/" + randomSession()));
+                        break;
+                    case PARTICIPATE:
+                        String path = "/api/session/" + randomSession() + "/participate/" + login.userId;
+                        call("POST /api/session/{id}/participate/{userId}", authorized(path).post(RequestBody.create(JSON, "")));
+                        call("DELETE /api/session/{id}/participate/{userId}", authorized(path).delete());
+                        break;
+                    case LOGIN:
+                        String body = objectMapper.createObjectNode().put("email", email).put("password", options.getPassword()).toString();
+                        call("POST /api/auth/login", new Request.Builder().url(baseUrl + "/api/auth/login").post(RequestBody.create(JSON, body)));
+                        break;
+                }
+            }
+        }
+
+        private Scenario pick() {
+            int value = random.nextInt(totalWeight);
+            for (Map.Entry<Scenario, Integer> entry : options.getMix().entrySet()) {
+                value -= entry.getValue();
+                if (value < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException();
+        }
+
+        private long randomSession() {
+            return sessionIds.get(random.nextInt(sessionIds.size()));
+        }
+
+        private Request.Builder get(String path) {
+            return authorized(path).get();
+        }
+
+        private Request.Builder authorized(String path) {
+            return new Request.Builder().url(baseUrl + path).header("Authorization", "Bearer " + login.token);
+        }
+
+        private void call(String endpoint, Request.Builder request) {
+            long start = System.nanoTime();
+            int status;
+            try (Response response = client.newCall(request.build()).execute()) {
+                // Read the whole body, as a real client would, before stopping the clock
+                response.body().bytes();
+                status = response.code();
+            } catch (IOException e) {
+                status = -1;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (recording) {
+                stats.computeIfAbsent(endpoint, name -> new EndpointStats()).record(status, elapsed);
+            }
+        }
+    }
+
+    /**
+     * Latencies and status counts of one endpoint; threads record into it concurrently.
+     */
+    public static final class EndpointStats {
+        private final LatencyRecorder latencies = new LatencyRecorder(10_000);
+        private final Map<Integer, Long> statuses = new TreeMap<>();
+
+        synchronized void record(int status, long nanos) {
+            latencies.record(nanos);
+            statuses.merge(status, 1L, Long::sum);
+        }
+
+        public synchronized LatencyRecorder getLatencies() {
+            return latencies;
+        }
+
+        public synchronized Map<Integer, Long> getStatuses() {
+            return new TreeMap<>(statuses);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.openclassrooms.starterjwt.benchmark.LatencyRecorder;
+
+/**
+ * Throughput, status counts and p50/p95/p99 latency per endpoint over the measured part of a run.
+ */
+public class LoadReport {
+    private static final Logger logger = LoggerFactory.getLogger(LoadReport.class);
+
+    private final LoadTestOptions options;
+    private final double seconds;
+    private final Map<String, LoadDriver.EndpointStats> stats;
+    private final Map<String, Object> pool;
+
+    /**
+     * @param pool connection pool figures from {@link PoolMonitor}, or null when they were not collected
+     */
+    public LoadReport(LoadTestOptions options, double seconds, Map<String, LoadDriver.EndpointStats> stats,
+                      Map<String, Object> pool) {
+        this.options = options;
+        this.seconds = seconds;
+        this.stats = stats;
+        this.pool = pool;
+    }
+
+    public void log() {
+        StringBuilder table = new StringBuilder(String.format("%n%-48s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "statuses"));
+        stats.forEach((endpoint, endpointStats) -> {
+            LatencyRecorder latencies = endpointStats.getLatencies();
+            table.append(String.format("%-48s %9d %9.1f %9.2f %9.2f %9.2f  %s%n", endpoint, latencies.count(),
+                    latencies.count() / seconds, latencies.percentileMs(50), latencies.percentileMs(95),
+                    latencies.percentileMs(99), endpointStats.getStatuses()));
+        });
+        if (pool != null) {
+            table.append("connection pool: ").append(pool).append(String.format("%n"));
+        }
+        logger.info("{} threads for {}s{}", options.getThreads(), String.format("%.1f", seconds), table);
+    }
+
+    public void write(File file) throws IOException {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        stats.forEach((endpoint, endpointStats) -> {
+            LatencyRecorder latencies = endpointStats.getLatencies();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", latencies.count());
+            result.put("throughput", latencies.count() / seconds);
+            result.put("meanMs", latencies.meanMs());
+            result.put("p50Ms", latencies.percentileMs(50));
+            result.put("p95Ms", latencies.percentileMs(95));
+            result.put("p99Ms", latencies.percentileMs(99));
+            result.put("statuses", endpointStats.getStatuses());
+            endpoints.put(endpoint, result);
+        });
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("seed", options.getSeed());
+        settings.put("users", options.getUsers());
+        settings.put("teachers", options.getTeachers());
+        settings.put("sessions", options.getSessions());
+        settings.put("enrolmentsPerSession", options.getEnrolmentsPerSession());
+        settings.put("threads", options.getThreads());
+        settings.put("mix", options.getMix());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("durationSeconds", seconds);
+        report.put("endpoints", endpoints);
+        if (pool != null) {
+            report.put("connectionPool", pool);
+        }
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        logger.info("Results written to {}", file.getAbsolutePath());
+    }
+}
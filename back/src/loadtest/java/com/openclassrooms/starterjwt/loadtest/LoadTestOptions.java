@@ -0,0 +1,86 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+
+import lombok.Getter;
+
+/**
+ * Load test settings, read from {@code --loadtest.*} command line arguments. Every other argument goes to the
+ * application, e.g. {@code --spring.datasource.url=...} to seed a MySQL database.
+ */
+@Getter
+public class LoadTestOptions {
+    private final String baseUrl;
+    private final boolean generate;
+    private final long seed;
+    private final int users;
+    private final int teachers;
+    private final int sessions;
+    private final int enrolmentsPerSession;
+    private final int freeSeats;
+    private final String password;
+    private final int threads;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final Map<Scenario, Integer> mix;
+    private final String resultFile;
+
+    public LoadTestOptions(String[] args) {
+        PropertySource<?> source = new SimpleCommandLinePropertySource(args);
+        this.baseUrl = get(source, "loadtest.baseUrl", null);
+        this.generate = Boolean.parseBoolean(get(source, "loadtest.generate", "true"));
+        this.seed = Long.parseLong(get(source, "loadtest.seed", "42"));
+        this.users = Integer.parseInt(get(source, "loadtest.users", "1000"));
+        this.teachers = Integer.parseInt(get(source, "loadtest.teachers", "20"));
+        this.sessions = Integer.parseInt(get(source, "loadtest.sessions", "500"));
+        this.enrolmentsPerSession = Integer.parseInt(get(source, "loadtest.enrolmentsPerSession", "10"));
+        this.freeSeats = Integer.parseInt(get(source, "loadtest.freeSeats", "20"));
+        this.password = get(source, "loadtest.password", "loadtest!1234");
+        this.threads = Integer.parseInt(get(source, "loadtest.threads", "16"));
+        this.warmupSeconds = Integer.parseInt(get(source, "loadtest.warmupSeconds", "10"));
+        this.durationSeconds = Integer.parseInt(get(source, "loadtest.durationSeconds", "60"));
+        this.mix = parseMix(get(source, "loadtest.mix", "list:40,get:30,participate:20,login:10"));
+        this.resultFile = get(source, "loadtest.resultFile", "target/loadtest-result.json");
+
+        if (users < 1 || threads < 1 || durationSeconds < 1) {
+            throw new IllegalArgumentException("loadtest.users, loadtest.threads and loadtest.durationSeconds must be positive");
+        }
+        if (baseUrl == null && !generate) {
+            throw new IllegalArgumentException("loadtest.generate=false needs a loadtest.baseUrl with seeded data");
+        }
+    }
+
+    private static String get(PropertySource<?> source, String name, String defaultValue) {
+        Object value = source.getProperty(name);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    /**
+     * Parses weights such as {@code list:40,get:30,participate:20,login:10}; scenarios left out are not run.
+     */
+    static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Scenario.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no scenario with a positive weight");
+        }
+        return weights;
+    }
+
+    public enum Scenario {
+        LIST, GET, PARTICIPATE, LOGIN
+    }
+}
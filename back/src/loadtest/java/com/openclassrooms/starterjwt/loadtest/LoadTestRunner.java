@@ -0,0 +1,72 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import java.io.File;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.openclassrooms.starterjwt.SpringBootSecurityJwtApplication;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Seeds a database and drives a mixed load against the API, then reports per-endpoint throughput and latency.
+ *
+ * <p>Without {@code --loadtest.baseUrl} the application is started in-process on an in-memory H2 database. With it,
+ * the data is seeded into the database given by the usual {@code --spring.datasource.*} arguments and the load is
+ * sent to the server at that URL. Run through {@code mvn -P loadtest verify -Dloadtest.args="..."}.
+ */
+public class LoadTestRunner {
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = new LoadTestOptions(args);
+
+        ConfigurableApplicationContext context = null;
+        try {
+            if (options.isGenerate()) {
+                context = start(options, args);
+            }
+
+            String baseUrl = options.getBaseUrl() != null
+                    ? options.getBaseUrl()
+                    : "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            List<String> emails;
+            List<Long> sessionIds = null;
+            if (context != null) {
+                DataGenerator.SeededData data = new DataGenerator(context).generate(options);
+                emails = data.getEmails();
+                sessionIds = data.getSessionIds();
+            } else {
+                emails = DataGenerator.emails(options);
+            }
+
+            // The pool can only be observed when the server runs in this process
+            PoolMonitor poolMonitor = options.getBaseUrl() == null ? new PoolMonitor(context.getBean(MeterRegistry.class)) : null;
+            LoadReport report = new LoadDriver(options, baseUrl, poolMonitor).run(emails, sessionIds);
+            report.log();
+            report.write(new File(options.getResultFile()));
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(LoadTestOptions options, String[] args) {
+        // System properties outrank the profile's files but not the command line, so it can still be overridden.
+        // The production BCrypt cost keeps logins realistic
+        System.getProperties().putIfAbsent("oc.app.bcryptStrength", "-1");
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(SpringBootSecurityJwtApplication.class);
+        if (options.getBaseUrl() != null) {
+            // Only seeding: the application under test runs elsewhere
+            builder.web(WebApplicationType.NONE);
+        } else {
+            builder.profiles("test").properties("server.port=0");
+        }
+        return builder.run(args);
+    }
+}
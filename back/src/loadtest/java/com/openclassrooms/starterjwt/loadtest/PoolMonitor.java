@@ -0,0 +1,92 @@
+package com.openclassrooms.starterjwt.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Follows the HikariCP pool of an in-process run through its hikaricp.* meters: connection acquire time, timeouts,
+ * and the peak of active connections and of threads waiting for one. Pending threads mean the pool is saturated.
+ */
+public class PoolMonitor {
+    private static final long SAMPLE_INTERVAL_MS = 50;
+
+    private final MeterRegistry meterRegistry;
+
+    private volatile boolean sampling;
+    private Thread sampler;
+    private double maxActive;
+    private double maxPending;
+    private long startAcquireCount;
+    private double startAcquireMs;
+    private double startTimeouts;
+    private Map<String, Object> result;
+
+    public PoolMonitor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void start() {
+        Timer acquire = acquire();
+        startAcquireCount = acquire != null ? acquire.count() : 0;
+        startAcquireMs = acquire != null ? acquire.totalTime(TimeUnit.MILLISECONDS) : 0;
+        startTimeouts = timeouts();
+
+        sampling = true;
+        sampler = new Thread(() -> {
+            while (sampling) {
+                maxActive = Math.max(maxActive, gauge("hikaricp.connections.active"));
+                maxPending = Math.max(maxPending, gauge("hikaricp.connections.pending"));
+                try {
+                    TimeUnit.MILLISECONDS.sleep(SAMPLE_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }, "pool-monitor");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    public void stop() throws InterruptedException {
+        sampling = false;
+        sampler.join();
+
+        Timer acquire = acquire();
+        long acquisitions = (acquire != null ? acquire.count() : 0) - startAcquireCount;
+        double acquireMs = (acquire != null ? acquire.totalTime(TimeUnit.MILLISECONDS) : 0) - startAcquireMs;
+
+        result = new LinkedHashMap<>();
+        result.put("maxConnections", gauge("hikaricp.connections.max"));
+        result.put("maxActive", maxActive);
+        result.put("maxPending", maxPending);
+        result.put("acquisitions", acquisitions);
+        result.put("meanAcquireMs", acquisitions > 0 ? acquireMs / acquisitions : 0);
+        result.put("maxAcquireMs", acquire != null ? acquire.max(TimeUnit.MILLISECONDS) : 0);
+        result.put("timeouts", timeouts() - startTimeouts);
+    }
+
+    public Map<String, Object> getResult() {
+        return result;
+    }
+
+    private Timer acquire() {
+        return meterRegistry.find("hikaricp.connections.acquire").timer();
+    }
+
+    private double timeouts() {
+        Counter timeouts = meterRegistry.find("hikaricp.connections.timeout").counter();
+        return timeouts != null ? timeouts.count() : 0;
+    }
+
+    private double gauge(String name) {
+        Gauge gauge = meterRegistry.find(name).gauge();
+        return gauge != null ? gauge.value() : 0;
+    }
+}
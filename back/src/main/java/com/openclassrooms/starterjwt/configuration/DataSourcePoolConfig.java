@@ -0,0 +1,46 @@
+package com.openclassrooms.starterjwt.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Sizes the connection pool from the number of cores when spring.datasource.hikari.maximum-pool-size is not set:
+ * cores * 2 + 1, following HikariCP's pool sizing guidance, capped by oc.app.dbMaxConnections, this instance's
+ * share of the database's max_connections.
+ */
+@Configuration
+public class DataSourcePoolConfig {
+    private static final Logger logger = LoggerFactory.getLogger(DataSourcePoolConfig.class);
+
+    private static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource && !environment.containsProperty(MAXIMUM_POOL_SIZE)) {
+                    HikariDataSource dataSource = (HikariDataSource) bean;
+                    int size = poolSize(Runtime.getRuntime().availableProcessors(),
+                            environment.getProperty("oc.app.dbMaxConnections", Integer.class, 0));
+                    dataSource.setMaximumPoolSize(size);
+                    logger.info("Connection pool {} sized to {} connections", dataSource.getPoolName(), size);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * @param maxConnections the connections this instance may open, or 0 for no limit
+     */
+    static int poolSize(int cores, int maxConnections) {
+        int size = cores * 2 + 1;
+        return maxConnections > 0 ? Math.min(size, maxConnections) : size;
+    }
+}
@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.configuration;
+
+import com.openclassrooms.starterjwt.monitoring.StatementCounter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Controllers and repositories are timed by Spring Boot itself, as http.server.requests and
+ * spring.data.repository.invocations. This aspect adds the service layer: every method annotated with
+ * {@link io.micrometer.core.annotation.Timed} is recorded with its class and method as tags.
+ */
+@Configuration
+public class MetricsConfig {
+    public static final String SERVICE_TIMER = "app.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Lets the statement counter see every statement Hibernate prepares, for the per-request statement metrics.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(StatementCounter statementCounter) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+}
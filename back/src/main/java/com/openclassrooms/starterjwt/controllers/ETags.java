@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the validators used for conditional GETs, so an unchanged resource can be answered with a 304 before any
+ * entity is loaded or mapped.
+ */
+final class ETags {
+    private ETags() {
+    }
+
+    /**
+     * A weak entity tag derived from the given parts, which must change whenever the representation does. Weak
+     * because it identifies the content rather than the bytes: Tomcat will not gzip a response with a strong ETag.
+     */
+    static String of(Object... parts) {
+        String value = Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining(":"));
+        return "W/\"" + DigestUtils.md5DigestAsHex(value.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * The Last-Modified value for a timestamp, or -1 (no header) when unknown.
+     */
+    static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt != null ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
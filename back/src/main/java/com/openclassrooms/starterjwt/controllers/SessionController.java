@@ -1,52 +1,183 @@
 package com.openclassrooms.starterjwt.controllers;
 
 
+import com.openclassrooms.starterjwt.dto.SessionBulkItemDto;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionPageDto;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionCursor;
+import com.openclassrooms.starterjwt.repository.SessionFilter;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final int MAX_BULK_SIZE = 1000;
+
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TeacherService teacherService;
+    private final UserService userService;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionMapper sessionMapper,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             TeacherService teacherService,
+                             UserService userService) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.teacherService = teacherService;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id, WebRequest request) {
         try {
+            SessionRepository.SessionVersion version = this.sessionService.findVersion(Long.valueOf(id));
+
+            if (version == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            String eTag = ETags.of(version.getId(), version.getVersion());
+            if (request.checkNotModified(eTag, ETags.lastModified(version.getUpdatedAt()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+
             Session session = this.sessionService.getById(Long.valueOf(id));
 
             if (session == null) {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            List<Long> userIds = this.sessionService.findParticipantIds(session.getId());
+
+            return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache())
+                    .body(this.sessionMapper.toDto(session, userIds));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Answers 304 when the client's ETag still matches. No Last-Modified here: deleting a session changes the count
+     * but not the latest update time.
+     */
     @GetMapping()
-    public ResponseEntity<?> findAll() {
+    public ResponseEntity<?> findAll(WebRequest request) {
+        SessionRepository.CollectionState state = this.sessionService.getCollectionState();
+        String eTag = ETags.of(state.getCount(), ETags.lastModified(state.getLastModified()), state.getVersionSum());
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
         List<Session> sessions = this.sessionService.findAll();
+        Map<Long, List<Long>> participantIds = this.sessionService.findParticipantIds(
+                sessions.stream().map(Session::getId).collect(Collectors.toList()));
 
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache())
+                .body(this.sessionMapper.toDto(sessions, participantIds));
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<?> findPage(@RequestParam(value = "size", defaultValue = "20") int size,
+                                      @RequestParam(value = "sort", defaultValue = "asc") String sort,
+                                      @RequestParam(value = "after", required = false) String after,
+                                      @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                                      @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+                                      @RequestParam(value = "teacherId", required = false) Long teacherId,
+                                      @RequestParam(value = "hasFreeSeats", required = false) Boolean hasFreeSeats) {
+        if (size < 1 || size > MAX_PAGE_SIZE || !("asc".equalsIgnoreCase(sort) || "desc".equalsIgnoreCase(sort))) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        SessionFilter filter;
+        try {
+            filter = SessionFilter.builder()
+                    .from(from)
+                    .to(to)
+                    .teacherId(teacherId)
+                    .hasFreeSeats(hasFreeSeats)
+                    .descending("desc".equalsIgnoreCase(sort))
+                    .after(after != null ? SessionCursor.decode(after) : null)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Slice<Session> page = this.sessionService.findPage(filter, size);
+        List<Session> sessions = page.getContent();
+        Map<Long, List<Long>> participantIds = this.sessionService.findParticipantIds(
+                sessions.stream().map(Session::getId).collect(Collectors.toList()));
+        String nextCursor = page.hasNext() ? SessionCursor.of(sessions.get(sessions.size() - 1)).encode() : null;
+
+        return ResponseEntity.ok().body(new SessionPageDto(
+                this.sessionMapper.toDto(sessions, participantIds), size, page.hasNext(), nextCursor));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                this.sessionService.streamAll(EXPORT_CHUNK_SIZE, (sessions, participantIds) -> {
+                    try {
+                        for (SessionDto sessionDto : this.sessionMapper.toDto(sessions, participantIds)) {
+                            generator.writeObject(sessionDto);
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @PostMapping()
@@ -59,10 +190,118 @@ public class SessionController {
         return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
     }
 
+    /**
+     * Creates the items without an id and updates the others, all in one transaction. Every item is validated and
+     * its references checked first; if any fails, nothing is written and the per-item results say why. Updates need
+     * the version the client read and, like a PUT, only change the editable fields: participants are kept.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> saveAll(@RequestBody List<SessionDto> sessionDtos) {
+        if (sessionDtos.isEmpty() || sessionDtos.size() > MAX_BULK_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Map<Long, Teacher> teachers = this.teacherService.findByIds(sessionDtos.stream()
+                .map(SessionDto::getTeacher_id).filter(Objects::nonNull).collect(Collectors.toSet()));
+        Map<Long, User> users = this.userService.findByIds(sessionDtos.stream()
+                .filter(sessionDto -> sessionDto.getUsers() != null)
+                .flatMap(sessionDto -> sessionDto.getUsers().stream())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        Set<Long> ids = sessionDtos.stream().map(SessionDto::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Long> versions = this.sessionService.findVersions(ids);
+        Map<Long, List<Long>> participants = this.sessionService.findParticipantIds(ids);
+
+        List<SessionBulkItemDto> results = new ArrayList<>(sessionDtos.size());
+        Set<Long> seenIds = new HashSet<>();
+        boolean failed = false;
+        boolean onlyConflicts = true;
+        for (int index = 0; index < sessionDtos.size(); index++) {
+            SessionDto sessionDto = sessionDtos.get(index);
+            SessionBulkItemDto result = check(index, sessionDto, teachers, users, versions, participants, seenIds);
+            if (result.getStatus() != SessionBulkItemDto.Status.SKIPPED) {
+                failed = true;
+                onlyConflicts &= result.getStatus() == SessionBulkItemDto.Status.CONFLICT;
+            }
+            results.add(result);
+        }
+        if (failed) {
+            return ResponseEntity.status(onlyConflicts ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST).body(results);
+        }
+
+        List<Session> sessions = new ArrayList<>(sessionDtos.size());
+        for (SessionDto sessionDto : sessionDtos) {
+            Session session = this.sessionMapper.toEntity(sessionDto, teachers, users);
+            if (session.getId() == null) {
+                session.setVersion(null);
+            }
+            sessions.add(session);
+        }
+        List<Session> saved = this.sessionService.saveAll(sessions);
+
+        for (int index = 0; index < saved.size(); index++) {
+            SessionBulkItemDto result = results.get(index);
+            result.setStatus(sessionDtos.get(index).getId() == null
+                    ? SessionBulkItemDto.Status.CREATED : SessionBulkItemDto.Status.UPDATED);
+            result.setSession(this.sessionMapper.toDto(saved.get(index)));
+        }
+        return ResponseEntity.ok().body(results);
+    }
+
+    private SessionBulkItemDto check(int index, SessionDto sessionDto, Map<Long, Teacher> teachers,
+                                     Map<Long, User> users, Map<Long, Long> versions,
+                                     Map<Long, List<Long>> participants, Set<Long> seenIds) {
+        List<String> errors = this.validator.validate(sessionDto).stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toList());
+        if (sessionDto.getTeacher_id() != null && !teachers.containsKey(sessionDto.getTeacher_id())) {
+            errors.add("teacher_id unknown teacher " + sessionDto.getTeacher_id());
+        }
+        if (sessionDto.getUsers() != null) {
+            List<Long> unknownUsers = sessionDto.getUsers().stream()
+                    .filter(userId -> !users.containsKey(userId)).distinct().collect(Collectors.toList());
+            if (!unknownUsers.isEmpty()) {
+                errors.add("users unknown user ids " + unknownUsers);
+            }
+            long distinctUsers = sessionDto.getUsers().stream().distinct().count();
+            if (sessionDto.getId() == null && sessionDto.getCapacity() != null && distinctUsers > sessionDto.getCapacity()) {
+                errors.add("users exceed the capacity of " + sessionDto.getCapacity());
+            }
+        }
+        if (sessionDto.getId() != null && !seenIds.add(sessionDto.getId())) {
+            errors.add("id appears more than once in the request");
+        }
+        if (sessionDto.getId() != null && sessionDto.getVersion() == null) {
+            errors.add("version is required to update a session");
+        }
+        if (!errors.isEmpty()) {
+            return new SessionBulkItemDto(index, SessionBulkItemDto.Status.INVALID, null, errors);
+        }
+
+        if (sessionDto.getId() != null) {
+            Long version = versions.get(sessionDto.getId());
+            if (version == null) {
+                return new SessionBulkItemDto(index, SessionBulkItemDto.Status.NOT_FOUND, null,
+                        Collections.singletonList("id unknown session " + sessionDto.getId()));
+            }
+            if (!sessionDto.getVersion().equals(version)) {
+                return new SessionBulkItemDto(index, SessionBulkItemDto.Status.CONFLICT, null,
+                        Collections.singletonList("version is " + version));
+            }
+            int enrolled = participants.getOrDefault(sessionDto.getId(), Collections.emptyList()).size();
+            if (sessionDto.getCapacity() != null && sessionDto.getCapacity() < enrolled) {
+                return new SessionBulkItemDto(index, SessionBulkItemDto.Status.INVALID, null,
+                        Collections.singletonList("capacity is below the " + enrolled + " enrolled participants"));
+            }
+        }
+        return new SessionBulkItemDto(index, SessionBulkItemDto.Status.SKIPPED, null, Collections.emptyList());
+    }
+
     @PutMapping("{id}")
     public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody SessionDto sessionDto) {
         try {
-            Session session = this.sessionService.update(Long.parseLong(id), this.sessionMapper.toEntity(sessionDto));
+            Session session = this.sessionService.update(Long.parseLong(id), this.sessionMapper.toEntityWithoutUsers(sessionDto));
 
             return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
         } catch (NumberFormatException e) {
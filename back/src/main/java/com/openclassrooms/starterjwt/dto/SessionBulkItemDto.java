@@ -0,0 +1,30 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionBulkItemDto {
+    public enum Status {
+        CREATED,
+        UPDATED,
+        INVALID,
+        NOT_FOUND,
+        CONFLICT,
+        // Valid, but not written because another item of the request failed
+        SKIPPED
+    }
+
+    private int index;
+
+    private Status status;
+
+    private SessionDto session;
+
+    private List<String> errors;
+}
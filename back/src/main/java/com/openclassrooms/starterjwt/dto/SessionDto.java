@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -28,11 +29,16 @@ public class SessionDto {
     private Long teacher_id;
 
     @NotNull
-    @Size(max = 2500)
+    @Size(max = 2000)
     private String description;
 
     private List<Long> users;
 
+    @Min(1)
+    private Integer capacity;
+
+    private Long version;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
@@ -0,0 +1,20 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionPageDto {
+    private List<SessionDto> content;
+
+    private int size;
+
+    private boolean hasNext;
+
+    private String nextCursor;
+}
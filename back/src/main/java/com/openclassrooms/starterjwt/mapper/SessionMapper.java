@@ -2,17 +2,22 @@ package com.openclassrooms.starterjwt.mapper;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import com.openclassrooms.starterjwt.services.UserService;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
+import org.mapstruct.Named;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -27,11 +32,45 @@ public abstract class SessionMapper implements EntityMapper<SessionDto, Session>
 
     @Mappings({
             @Mapping(source = "description", target = "description"),
-            @Mapping(target = "teacher", expression = "java(sessionDto.getTeacher_id() != null ? this.teacherService.findById(sessionDto.getTeacher_id()) : null)"),
-            @Mapping(target = "users", expression = "java(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList).stream().map(user_id -> { User user = this.userService.findById(user_id); if (user != null) { return user; } return null; }).collect(Collectors.toList()))"),
+            @Mapping(target = "teacher", expression = "java(sessionDto.getTeacher_id() != null ? this.teacherService.getReference(sessionDto.getTeacher_id()) : null)"),
+            @Mapping(target = "users", expression = "java(this.userService.findAllById(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList)))"),
     })
     public abstract Session toEntity(SessionDto sessionDto);
 
+    @Named("withoutReferences")
+    @Mappings({
+            @Mapping(source = "description", target = "description"),
+            @Mapping(target = "teacher", ignore = true),
+            @Mapping(target = "users", ignore = true),
+    })
+    public abstract Session toEntityWithoutReferences(SessionDto sessionDto);
+
+    /**
+     * Maps the fields a client may edit; participants are left out as they only change through enrolment.
+     */
+    @Named("withoutUsers")
+    @Mappings({
+            @Mapping(source = "description", target = "description"),
+            @Mapping(target = "teacher", expression = "java(sessionDto.getTeacher_id() != null ? this.teacherService.getReference(sessionDto.getTeacher_id()) : null)"),
+            @Mapping(target = "users", ignore = true),
+    })
+    public abstract Session toEntityWithoutUsers(SessionDto sessionDto);
+
+    /**
+     * Maps a session whose teacher and participants were already loaded, typically in batch for many DTOs at once.
+     */
+    public Session toEntity(SessionDto sessionDto, Map<Long, Teacher> teachers, Map<Long, User> users) {
+        Session session = toEntityWithoutReferences(sessionDto);
+        if (session != null) {
+            session.setTeacher(sessionDto.getTeacher_id() != null ? teachers.get(sessionDto.getTeacher_id()) : null);
+            session.setUsers(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList).stream()
+                    .distinct()
+                    .map(users::get)
+                    .collect(Collectors.toList()));
+        }
+        return session;
+    }
+
 
     @Mappings({
             @Mapping(source = "description", target = "description"),
@@ -39,4 +78,28 @@ public abstract class SessionMapper implements EntityMapper<SessionDto, Session>
             @Mapping(target = "users", expression = "java(Optional.ofNullable(session.getUsers()).orElseGet(Collections::emptyList).stream().map(u -> u.getId()).collect(Collectors.toList()))"),
     })
     public abstract SessionDto toDto(Session session);
+
+    @Named("withoutUsers")
+    @Mappings({
+            @Mapping(source = "description", target = "description"),
+            @Mapping(source = "session.teacher.id", target = "teacher_id"),
+            @Mapping(target = "users", ignore = true),
+    })
+    public abstract SessionDto toDtoWithoutUsers(Session session);
+
+    public SessionDto toDto(Session session, List<Long> userIds) {
+        SessionDto sessionDto = toDtoWithoutUsers(session);
+        if (sessionDto != null) {
+            sessionDto.setUsers(new ArrayList<>(userIds));
+        }
+        return sessionDto;
+    }
+
+    public List<SessionDto> toDto(List<Session> sessions, Map<Long, List<Long>> participantIds) {
+        List<SessionDto> sessionDtos = new ArrayList<>(sessions.size());
+        for (Session session : sessions) {
+            sessionDtos.add(toDto(session, participantIds.getOrDefault(session.getId(), Collections.emptyList())));
+        }
+        return sessionDtos;
+    }
 }
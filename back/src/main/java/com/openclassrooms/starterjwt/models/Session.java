@@ -3,11 +3,14 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -27,7 +30,14 @@ import java.util.List;
 @ToString
 public class Session {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "session_id")
+    @GenericGenerator(name = "session_id", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+            @Parameter(name = "table_name", value = "hibernate_sequences"),
+            @Parameter(name = "segment_value", value = "SESSIONS"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
+    @Column(columnDefinition = "INTEGER")
     private Long id;
 
     @NotBlank
@@ -38,20 +48,27 @@ public class Session {
     private Date date;
 
     @NotNull
-    @Size(max = 2500)
+    @Size(max = 2000)
     private String description;
 
     @OneToOne
-    @JoinColumn(name = "teacher_id", referencedColumnName = "id")
+    @JoinColumn(name = "teacher_id", referencedColumnName = "id", columnDefinition = "INTEGER")
     private Teacher teacher;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "PARTICIPATE",
-            joinColumns = @JoinColumn( name = "session_id" ),
-            inverseJoinColumns = @JoinColumn( name = "user_id" ) )
+            joinColumns = @JoinColumn( name = "session_id", columnDefinition = "INTEGER" ),
+            inverseJoinColumns = @JoinColumn( name = "user_id", columnDefinition = "INTEGER" ) )
+    @ToString.Exclude
     private List<User> users;
 
+    @Min(1)
+    private Integer capacity;
+
+    @Version
+    private Long version;
+
     @CreatedDate
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
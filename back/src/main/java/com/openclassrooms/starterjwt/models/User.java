@@ -2,6 +2,8 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -12,9 +14,7 @@ import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "USERS", uniqueConstraints = {
-    @UniqueConstraint(columnNames = "email")
-})
+@Table(name = "USERS")
 @Data
 @Accessors(chain = true)
 @EntityListeners(AuditingEntityListener.class)
@@ -26,7 +26,14 @@ import java.time.LocalDateTime;
 @ToString
 public class User {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "user_id")
+  @GenericGenerator(name = "user_id", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+          @Parameter(name = "table_name", value = "hibernate_sequences"),
+          @Parameter(name = "segment_value", value = "USERS"),
+          @Parameter(name = "increment_size", value = "50"),
+          @Parameter(name = "optimizer", value = "pooled-lo")
+  })
+  @Column(columnDefinition = "INTEGER")
   private Long id;
 
   @NonNull
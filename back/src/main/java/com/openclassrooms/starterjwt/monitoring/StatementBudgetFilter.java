@@ -0,0 +1,74 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records how many SQL statements each request issues, per endpoint, and flags requests going over the statement
+ * budget: a listing whose count grows with its result size is the usual sign of an N+1.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class StatementBudgetFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(StatementBudgetFilter.class);
+
+    private final StatementCounter statementCounter;
+    private final MeterRegistry meterRegistry;
+    private final int budget;
+
+    public StatementBudgetFilter(StatementCounter statementCounter,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${oc.app.sqlStatementBudget:20}") int budget) {
+        this.statementCounter = statementCounter;
+        this.meterRegistry = meterRegistry;
+        this.budget = budget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        statementCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = statementCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+            DistributionSummary.builder("http.server.requests.statements")
+                    .description("SQL statements issued per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(statements);
+
+            if (statements > budget) {
+                Counter.builder("http.server.requests.statements.over.budget")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .increment();
+                logger.warn("{} {} issued {} SQL statements, over the budget of {}; possible N+1",
+                        request.getMethod(), request.getRequestURI(), statements, budget);
+            }
+        }
+    }
+}
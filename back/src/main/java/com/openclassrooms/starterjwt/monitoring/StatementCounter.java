@@ -0,0 +1,37 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #start()} and {@link #stop()}.
+ * Statements issued outside such a window, e.g. at startup, are not counted.
+ */
+@Component
+public class StatementCounter implements StatementInspector {
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    public void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * Ends the window and returns the number of statements counted in it, or 0 when none was started.
+     */
+    public int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+}
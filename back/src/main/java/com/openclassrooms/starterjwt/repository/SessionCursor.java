@@ -0,0 +1,39 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position of the last session of a page in the (date, id) ordering, exchanged with clients as an opaque token.
+ */
+@Value
+public class SessionCursor {
+    Date date;
+
+    Long id;
+
+    public static SessionCursor of(Session session) {
+        return new SessionCursor(session.getDate(), session.getId());
+    }
+
+    public String encode() {
+        String value = date.getTime() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the token was not produced by {@link #encode()}
+     */
+    public static SessionCursor decode(String token) {
+        String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = value.split(":");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid session cursor");
+        }
+        return new SessionCursor(new Date(Long.parseLong(parts[0])), Long.valueOf(parts[1]));
+    }
+}
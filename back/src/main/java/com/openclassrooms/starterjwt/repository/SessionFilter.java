@@ -0,0 +1,22 @@
+package com.openclassrooms.starterjwt.repository;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+@Builder
+public class SessionFilter {
+    private Date from;
+
+    private Date to;
+
+    private Long teacherId;
+
+    private Boolean hasFreeSeats;
+
+    private boolean descending;
+
+    private SessionCursor after;
+}
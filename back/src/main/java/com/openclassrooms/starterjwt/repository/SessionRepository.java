@@ -2,8 +2,85 @@ package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Session;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface SessionRepository  extends JpaRepository<Session, Long> {
+public interface SessionRepository  extends JpaRepository<Session, Long>, SessionRepositoryCustom {
+    @Query("select s from Session s left join fetch s.teacher")
+    List<Session> findAllWithTeacher();
+
+    @Query("select s from Session s left join fetch s.teacher order by s.id")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    Stream<Session> streamAllWithTeacher();
+
+    @Query("select distinct s from Session s left join fetch s.users where s.id in :ids")
+    List<Session> findAllWithUsersById(@Param("ids") Collection<Long> ids);
+
+    @Query("select s.id as id, s.version as version, s.updatedAt as updatedAt from Session s where s.id in :ids")
+    List<SessionVersion> findVersions(@Param("ids") Collection<Long> ids);
+
+    @Query("select count(s) as count, max(s.updatedAt) as lastModified, coalesce(sum(s.version), 0) as versionSum from Session s")
+    CollectionState findCollectionState();
+
+    @Query(value = "SELECT session_id AS sessionId, user_id AS userId FROM PARTICIPATE WHERE session_id IN (:sessionIds)",
+            nativeQuery = true)
+    List<Participant> findParticipants(@Param("sessionIds") Collection<Long> sessionIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Session s set s.version = s.version + 1, s.updatedAt = current_timestamp where s.id = :sessionId")
+    int incrementVersion(@Param("sessionId") Long sessionId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO PARTICIPATE (session_id, user_id) SELECT s.id, u.id FROM SESSIONS s, USERS u"
+            + " WHERE s.id = :sessionId AND u.id = :userId AND NOT EXISTS"
+            + " (SELECT 1 FROM PARTICIPATE p WHERE p.session_id = :sessionId AND p.user_id = :userId)"
+            + " AND (s.capacity IS NULL OR s.capacity > (SELECT COUNT(*) FROM PARTICIPATE c WHERE c.session_id = :sessionId))",
+            nativeQuery = true)
+    int addParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM PARTICIPATE WHERE session_id = :sessionId AND user_id = :userId", nativeQuery = true)
+    int removeParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Query(value = "SELECT COUNT(*) FROM PARTICIPATE WHERE session_id = :sessionId AND user_id = :userId", nativeQuery = true)
+    long countParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    interface SessionVersion {
+        Long getId();
+
+        Long getVersion();
+
+        LocalDateTime getUpdatedAt();
+    }
+
+    /**
+     * Changes whenever the session list does: any update or enrolment bumps a version, and creations or deletions
+     * change the count.
+     */
+    interface CollectionState {
+        Long getCount();
+
+        LocalDateTime getLastModified();
+
+        Long getVersionSum();
+    }
+
+    interface Participant {
+        Long getSessionId();
+
+        Long getUserId();
+    }
 }
@@ -0,0 +1,19 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SessionRepositoryCustom {
+    /**
+     * Returns at most {@code limit} sessions matching the filter, ordered by (date, id) and starting after the
+     * filter's cursor, with their teacher fetched.
+     */
+    List<Session> findPage(SessionFilter filter, int limit);
+
+    /**
+     * Evicts sessions from the persistence context, so long-running reads do not retain every row they visit.
+     */
+    void detach(Collection<Session> sessions);
+}
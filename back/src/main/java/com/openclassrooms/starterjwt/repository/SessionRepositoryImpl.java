@@ -0,0 +1,69 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public class SessionRepositoryImpl implements SessionRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Session> findPage(SessionFilter filter, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Session> query = cb.createQuery(Session.class);
+        Root<Session> session = query.from(Session.class);
+        session.fetch("teacher", JoinType.LEFT);
+
+        Path<Date> date = session.get("date");
+        Path<Long> id = session.get("id");
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(date, filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThan(date, filter.getTo()));
+        }
+        if (filter.getTeacherId() != null) {
+            predicates.add(cb.equal(session.get("teacher").get("id"), filter.getTeacherId()));
+        }
+        if (filter.getHasFreeSeats() != null) {
+            Path<Integer> capacity = session.get("capacity");
+            Predicate free = cb.or(cb.isNull(capacity), cb.greaterThan(capacity, cb.size(session.<List<?>>get("users"))));
+            predicates.add(filter.getHasFreeSeats() ? free : cb.not(free));
+        }
+        if (filter.getAfter() != null) {
+            Date afterDate = filter.getAfter().getDate();
+            Long afterId = filter.getAfter().getId();
+            predicates.add(filter.isDescending()
+                    ? cb.or(cb.lessThan(date, afterDate), cb.and(cb.equal(date, afterDate), cb.lessThan(id, afterId)))
+                    : cb.or(cb.greaterThan(date, afterDate), cb.and(cb.equal(date, afterDate), cb.greaterThan(id, afterId))));
+        }
+
+        query.select(session).where(predicates.toArray(new Predicate[0]));
+        if (filter.isDescending()) {
+            query.orderBy(cb.desc(date), cb.desc(id));
+        } else {
+            query.orderBy(cb.asc(date), cb.asc(id));
+        }
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public void detach(Collection<Session> sessions) {
+        sessions.forEach(entityManager::detach);
+    }
+}
@@ -2,8 +2,35 @@ package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Teacher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Teachers are in the second-level cache and both list queries are cacheable: results are kept as ids and the
+ * entities resolved from the cache, until a write to TEACHERS invalidates them.
+ */
 @Repository
 public interface TeacherRepository  extends JpaRepository<Teacher, Long> {
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Teacher> findAll();
+
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Teacher> findAllById(Iterable<Long> ids);
+
+    @Query("select count(t) as count, max(t.updatedAt) as lastModified from Teacher t")
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    CollectionState findCollectionState();
+
+    interface CollectionState {
+        Long getCount();
+
+        LocalDateTime getLastModified();
+    }
 }
@@ -0,0 +1,43 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Picks the highest BCrypt cost whose hash time stays under a target on the current hardware.
+ * Every extra cost step doubles the work, so only the lowest allowed cost is actually timed.
+ */
+public final class BCryptStrengthCalibrator {
+  private static final int SAMPLES = 3;
+
+  private BCryptStrengthCalibrator() {
+  }
+
+  public static int calibrate(long targetMs, int minStrength, int maxStrength) {
+    if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+      throw new IllegalArgumentException("Invalid BCrypt strength range: " + minStrength + ".." + maxStrength);
+    }
+
+    double elapsedMs = measure(minStrength);
+    int strength = minStrength;
+    while (strength < maxStrength && elapsedMs * 2 <= targetMs) {
+      strength++;
+      elapsedMs *= 2;
+    }
+
+    return strength;
+  }
+
+  static double measure(int strength) {
+    String salt = BCrypt.gensalt(strength);
+    long best = Long.MAX_VALUE;
+
+    // The first round also warms up the JIT, keep the fastest sample
+    for (int i = 0; i < SAMPLES; i++) {
+      long start = System.nanoTime();
+      BCrypt.hashpw("calibration-password", salt);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+
+    return best / 1_000_000.0;
+  }
+}
@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs the hashing and verification of the delegate on the {@link PasswordHashingExecutor}, so at most its pool
+ * size of hashes run concurrently. The calling thread waits for the result, and user lookups and transactions stay
+ * on it.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+  private final PasswordEncoder delegate;
+
+  private final PasswordHashingExecutor hashingExecutor;
+
+  public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor hashingExecutor) {
+    this.delegate = delegate;
+    this.hashingExecutor = hashingExecutor;
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return hashingExecutor.execute(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return hashingExecutor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+}
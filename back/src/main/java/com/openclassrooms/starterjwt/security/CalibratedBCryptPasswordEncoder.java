@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt encoder that asks for a rehash only when a stored hash was produced with a cost below a floor.
+ * Nodes calibrated on different hardware may pick different costs within the allowed range, and rehashing
+ * on any difference would make a user's hash change back and forth at every login.
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+  private final int strength;
+
+  private final int minStrength;
+
+  public CalibratedBCryptPasswordEncoder(int strength) {
+    this(strength, strength);
+  }
+
+  public CalibratedBCryptPasswordEncoder(int strength, int minStrength) {
+    super(strength);
+    if (minStrength > strength) {
+      throw new IllegalArgumentException("BCrypt floor " + minStrength + " is above the strength " + strength);
+    }
+    this.strength = strength;
+    this.minStrength = minStrength;
+  }
+
+  public int getStrength() {
+    return strength;
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    int storedStrength = strengthOf(encodedPassword);
+    return storedStrength > 0 && storedStrength < minStrength;
+  }
+
+  static int strengthOf(String encodedPassword) {
+    // $2a$10$<salt and hash>
+    if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+        || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+      return -1;
+    }
+
+    try {
+      return Integer.parseInt(encodedPassword.substring(4, 6));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+}
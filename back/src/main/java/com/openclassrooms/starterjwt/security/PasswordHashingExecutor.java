@@ -0,0 +1,113 @@
+package com.openclassrooms.starterjwt.security;
+
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Runs password hashing and verification on a bounded pool, which limits how many BCrypt hashes run at once.
+ * Callers still block on their request thread until their hash completes. When the queue is full, or a hash takes
+ * longer than the timeout, they get a 503 instead of waiting further.
+ */
+@Component
+public class PasswordHashingExecutor {
+  private static final Logger logger = LoggerFactory.getLogger(PasswordHashingExecutor.class);
+
+  private final ThreadPoolExecutor executor;
+
+  private final long timeoutMs;
+
+  private final Timer hashTimer;
+
+  private final Counter rejections;
+
+  public PasswordHashingExecutor(@Value("${oc.app.passwordHashingThreads:0}") int threads,
+      @Value("${oc.app.passwordHashingQueueCapacity:50}") int queueCapacity,
+      @Value("${oc.app.passwordHashingTimeoutMs:5000}") long timeoutMs,
+      MeterRegistry meterRegistry) {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    this.timeoutMs = timeoutMs;
+    this.hashTimer = Timer.builder("password.hashing").register(meterRegistry);
+    this.rejections = Counter.builder("password.hashing.rejected").register(meterRegistry);
+
+    // Queue depth, active threads and completed tasks, tagged name=passwordHashing
+    new ExecutorServiceMetrics(executor, "passwordHashing", Collections.emptyList()).bindTo(meterRegistry);
+  }
+
+  public <T> T execute(Supplier<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(() -> hashTimer.record(task));
+    } catch (RejectedExecutionException e) {
+      rejections.increment();
+      logger.warn("Password hashing queue is full, rejecting request");
+      throw new ServiceUnavailableException();
+    }
+
+    try {
+      return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      rejections.increment();
+      logger.warn("Password hashing did not complete within {}ms", timeoutMs);
+      throw new ServiceUnavailableException();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ServiceUnavailableException();
+    }
+  }
+
+  public int getQueueSize() {
+    return executor.getQueue().size();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private static class HashingThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -1,6 +1,14 @@
 package com.openclassrooms.starterjwt.security;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,7 +18,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -25,12 +33,31 @@ import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
     // jsr250Enabled = true,
     prePostEnabled = true)
 public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
+  private static final Logger logger = LoggerFactory.getLogger(WebSecurityConfig.class);
+
+  private static final String BCRYPT_ID = "bcrypt";
+
+  @Value("${oc.app.bcryptStrength:-1}")
+  private int bcryptStrength;
+
+  @Value("${oc.app.bcryptTargetMs:250}")
+  private long bcryptTargetMs;
+
+  @Value("${oc.app.bcryptMinStrength:10}")
+  private int bcryptMinStrength;
+
+  @Value("${oc.app.bcryptMaxStrength:14}")
+  private int bcryptMaxStrength;
+
   @Autowired
   UserDetailsServiceImpl userDetailsService;
 
   @Autowired
   private AuthEntryPointJwt unauthorizedHandler;
 
+  @Autowired
+  private PasswordHashingExecutor passwordHashingExecutor;
+
   @Bean
   public AuthTokenFilter authenticationJwtTokenFilter() {
     return new AuthTokenFilter();
@@ -49,7 +76,22 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    int strength = bcryptStrength > 0
+        ? bcryptStrength
+        : BCryptStrengthCalibrator.calibrate(bcryptTargetMs, bcryptMinStrength, bcryptMaxStrength);
+    logger.info("Using BCrypt strength {}", strength);
+
+    // A fixed strength is also the floor, while calibrated nodes accept any hash within the allowed range
+    CalibratedBCryptPasswordEncoder bcrypt = bcryptStrength > 0
+        ? new CalibratedBCryptPasswordEncoder(strength)
+        : new CalibratedBCryptPasswordEncoder(strength, bcryptMinStrength);
+    Map<String, PasswordEncoder> encoders = new HashMap<>();
+    encoders.put(BCRYPT_ID, bcrypt);
+
+    // Hashes stored before the {id} prefix was introduced are plain BCrypt, and get rehashed on login
+    DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(BCRYPT_ID, encoders);
+    passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+    return new BoundedPasswordEncoder(passwordEncoder, passwordHashingExecutor);
   }
 
   @Override
@@ -58,6 +100,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
       .exceptionHandling().authenticationEntryPoint(unauthorizedHandler).and()
       .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
       .authorizeRequests().antMatchers("/api/auth/**").permitAll()
+      .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
       .antMatchers("/api/**").authenticated()
       .anyRequest().authenticated();
 
@@ -10,6 +10,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,6 +18,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
@@ -26,6 +28,18 @@ public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private UserDetailsServiceImpl userDetailsService;
 
+  @Autowired
+  private VerifiedTokenCache tokenCache;
+
+  @Autowired
+  private JwtRevocationService revocationService;
+
+  @Value("${oc.app.jwtStatelessAuth:false}")
+  private boolean statelessAuth;
+
+  @Value("${oc.app.jwtRevocationCheck:true}")
+  private boolean revocationCheck;
+
   private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
   @Override
@@ -33,10 +47,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
       throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+      JwtClaims claims = jwt != null ? verifyJwt(jwt) : null;
+      if (claims != null && !isRevoked(claims)) {
+        UserDetails userDetails = loadUserDetails(claims);
         UsernamePasswordAuthenticationToken authentication =
             new UsernamePasswordAuthenticationToken(
                 userDetails,
@@ -53,6 +66,39 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     filterChain.doFilter(request, response);
   }
 
+  private JwtClaims verifyJwt(String jwt) {
+    JwtClaims claims = tokenCache.get(jwt);
+
+    if (claims == null) {
+      claims = jwtUtils.parseJwtToken(jwt);
+      if (claims != null) {
+        tokenCache.put(jwt, claims);
+      }
+    }
+
+    return claims;
+  }
+
+  private boolean isRevoked(JwtClaims claims) {
+    return revocationCheck && revocationService.isRevoked(claims);
+  }
+
+  private UserDetails loadUserDetails(JwtClaims claims) {
+    // Tokens issued before the profile claims were added still go through the database
+    if (!statelessAuth || claims.getUserId() == null) {
+      return userDetailsService.loadUserByUsername(claims.getSubject());
+    }
+
+    return UserDetailsImpl
+            .builder()
+            .id(claims.getUserId())
+            .username(claims.getSubject())
+            .firstName(claims.getFirstName())
+            .lastName(claims.getLastName())
+            .admin(claims.getAdmin())
+            .build();
+  }
+
   private String parseJwt(HttpServletRequest request) {
     String headerAuth = request.getHeader("Authorization");
 
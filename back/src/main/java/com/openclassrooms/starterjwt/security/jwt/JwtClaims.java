@@ -0,0 +1,57 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.time.Instant;
+import java.util.Date;
+
+import io.jsonwebtoken.Claims;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class JwtClaims {
+  public static final String USER_ID = "id";
+
+  public static final String ADMIN = "admin";
+
+  public static final String FIRST_NAME = "firstName";
+
+  public static final String LAST_NAME = "lastName";
+
+  String subject;
+
+  Instant issuedAt;
+
+  Instant expiration;
+
+  Long userId;
+
+  String firstName;
+
+  String lastName;
+
+  Boolean admin;
+
+  public static JwtClaims of(Claims claims) {
+    Object userId = claims.get(USER_ID);
+    Object admin = claims.get(ADMIN);
+
+    return JwtClaims.builder()
+        .subject(claims.getSubject())
+        .issuedAt(toInstant(claims.getIssuedAt()))
+        .expiration(toInstant(claims.getExpiration()))
+        .userId(userId instanceof Number ? ((Number) userId).longValue() : null)
+        .firstName(claims.get(FIRST_NAME, String.class))
+        .lastName(claims.get(LAST_NAME, String.class))
+        .admin(admin instanceof Boolean ? (Boolean) admin : null)
+        .build();
+  }
+
+  public boolean isExpired(long nowMs) {
+    return expiration == null || expiration.toEpochMilli() <= nowMs;
+  }
+
+  private static Instant toInstant(Date date) {
+    return date != null ? date.toInstant() : null;
+  }
+}
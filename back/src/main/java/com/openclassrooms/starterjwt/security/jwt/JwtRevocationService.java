@@ -0,0 +1,45 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps, per user id, the instant before which issued tokens must be rejected.
+ * State is held in memory, so a revocation only applies to the node that recorded it and is lost on restart.
+ * It is a fast path in front of the user lookup, which stays the durable check unless stateless auth is enabled.
+ */
+@Component
+public class JwtRevocationService {
+  private final Map<Long, Instant> revokedBefore = new ConcurrentHashMap<>();
+
+  private final long jwtExpirationMs;
+
+  public JwtRevocationService(@Value("${oc.app.jwtExpirationMs}") long jwtExpirationMs) {
+    this.jwtExpirationMs = jwtExpirationMs;
+  }
+
+  public void revokeAll(Long userId) {
+    // iat is only precise to the second, so anything issued during the current second is revoked too
+    Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    revokedBefore.put(userId, now);
+
+    // Tokens issued before the expiration window are rejected by the parser anyway
+    Instant oldest = now.minusMillis(jwtExpirationMs);
+    revokedBefore.values().removeIf(instant -> instant.isBefore(oldest));
+  }
+
+  public boolean isRevoked(JwtClaims claims) {
+    // Tokens without an id claim predate it and are always checked against the database
+    Instant revokedAt = claims.getUserId() != null ? revokedBefore.get(claims.getUserId()) : null;
+    if (revokedAt == null) {
+      return false;
+    }
+
+    return claims.getIssuedAt() == null || !claims.getIssuedAt().isAfter(revokedAt);
+  }
+}
@@ -2,6 +2,10 @@ package com.openclassrooms.starterjwt.security.jwt;
 
 import java.util.Date;
 
+import javax.annotation.PostConstruct;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,6 +15,7 @@ import org.springframework.stereotype.Component;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
 
 @Component
 public class JwtUtils {
@@ -22,26 +27,56 @@ public class JwtUtils {
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
 
+  private SecretKey signingKey;
+
+  private JwtParser jwtParser;
+
+  @PostConstruct
+  public void init() {
+    // Same decoding as Jwts.parser().setSigningKey(String), so previously issued tokens stay valid
+    signingKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+    jwtParser = Jwts.parser().setSigningKey(signingKey);
+  }
+
   public String generateJwtToken(Authentication authentication) {
 
     UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
-    return Jwts.builder()
+    Date now = new Date();
+    JwtBuilder builder = Jwts.builder()
         .setSubject((userPrincipal.getUsername()))
-        .setIssuedAt(new Date())
-        .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .setIssuedAt(now)
+        .setExpiration(new Date(now.getTime() + jwtExpirationMs));
+
+    if (userPrincipal.getId() != null) {
+      builder.claim(JwtClaims.USER_ID, userPrincipal.getId());
+    }
+    if (userPrincipal.getFirstName() != null) {
+      builder.claim(JwtClaims.FIRST_NAME, userPrincipal.getFirstName());
+    }
+    if (userPrincipal.getLastName() != null) {
+      builder.claim(JwtClaims.LAST_NAME, userPrincipal.getLastName());
+    }
+    if (userPrincipal.getAdmin() != null) {
+      builder.claim(JwtClaims.ADMIN, userPrincipal.getAdmin());
+    }
+
+    return builder
+        .signWith(SignatureAlgorithm.HS512, signingKey)
         .compact();
   }
 
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    return jwtParser.parseClaimsJws(token).getBody().getSubject();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return parseJwtToken(authToken) != null;
+  }
+
+  public JwtClaims parseJwtToken(String authToken) {
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      return JwtClaims.of(jwtParser.parseClaimsJws(authToken).getBody());
     } catch (SignatureException e) {
       logger.error("Invalid JWT signature: {}", e.getMessage());
     } catch (MalformedJwtException e) {
@@ -54,6 +89,6 @@ public class JwtUtils {
       logger.error("JWT claims string is empty: {}", e.getMessage());
     }
 
-    return false;
+    return null;
   }
 }
@@ -0,0 +1,99 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded cache of JWTs whose signature has already been verified.
+ * Entries are keyed by a SHA-256 digest of the token, so raw bearer tokens are never kept in memory,
+ * and each one expires when its token's {@code exp} claim is reached.
+ */
+@Component
+public class VerifiedTokenCache {
+  private final Cache<String, JwtClaims> cache;
+
+  public VerifiedTokenCache(@Value("${oc.app.jwtCacheMaxSize:10000}") int maxSize, MeterRegistry meterRegistry) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(Math.max(maxSize, 0))
+        .expireAfter(new TokenExpiry())
+        .recordStats()
+        .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtTokens");
+  }
+
+  /**
+   * Returns the verified claims of the token, or null when the token is unknown or expired.
+   */
+  public JwtClaims get(String token) {
+    return cache.getIfPresent(digest(token));
+  }
+
+  /**
+   * Stores the claims of a token that has just been verified. Tokens without an expiry are never cached.
+   */
+  public void put(String token, JwtClaims claims) {
+    if (claims.getExpiration() == null) {
+      return;
+    }
+
+    cache.put(digest(token), claims);
+  }
+
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  public long size() {
+    cache.cleanUp();
+    return cache.estimatedSize();
+  }
+
+  private static String digest(String token) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private static final class TokenExpiry implements Expiry<String, JwtClaims> {
+    @Override
+    public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+      return untilExpiration(claims);
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, JwtClaims claims, long currentTime, long currentDuration) {
+      return untilExpiration(claims);
+    }
+
+    @Override
+    public long expireAfterRead(String key, JwtClaims claims, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+
+    private static long untilExpiration(JwtClaims claims) {
+      long remainingMs = claims.getExpiration().toEpochMilli() - System.currentTimeMillis();
+      return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Component
+public class UserDetailsCache {
+  private final boolean enabled;
+
+  private final Cache<String, UserDetailsImpl> cache;
+
+  public UserDetailsCache(@Value("${oc.app.userCacheEnabled:true}") boolean enabled,
+      @Value("${oc.app.userCacheMaxSize:10000}") long maxSize,
+      @Value("${oc.app.userCacheTtlSeconds:300}") long ttlSeconds,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+        .recordStats()
+        .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+  }
+
+  public UserDetailsImpl get(String email, Function<String, UserDetailsImpl> loader) {
+    if (!enabled) {
+      return loader.apply(email);
+    }
+
+    return cache.get(email, loader);
+  }
+
+  public void invalidate(String email) {
+    cache.invalidate(email);
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+}
@@ -1,25 +1,61 @@
 package com.openclassrooms.starterjwt.security.services;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
   UserRepository userRepository;
 
-  UserDetailsServiceImpl(UserRepository userRepository) {
+  UserDetailsCache userDetailsCache;
+
+  TransactionTemplate readOnlyTransaction;
+
+  UserDetailsServiceImpl(UserRepository userRepository, UserDetailsCache userDetailsCache,
+      PlatformTransactionManager transactionManager) {
     this.userRepository = userRepository;
+    this.userDetailsCache = userDetailsCache;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
   }
 
+  /**
+   * Not transactional itself: a cache hit takes no connection, only the loader runs in a read-only transaction.
+   */
   @Override
-  @Transactional
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    return userDetailsCache.get(username,
+        key -> readOnlyTransaction.execute(status -> findUserDetails(key)));
+  }
+
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    userRepository.updatePassword(user.getUsername(), newPassword);
+    userDetailsCache.invalidate(user.getUsername());
+
+    UserDetailsImpl userDetails = (UserDetailsImpl) user;
+    return UserDetailsImpl
+            .builder()
+            .id(userDetails.getId())
+            .username(userDetails.getUsername())
+            .lastName(userDetails.getLastName())
+            .firstName(userDetails.getFirstName())
+            .admin(userDetails.getAdmin())
+            .password(newPassword)
+            .build();
+  }
+
+  private UserDetailsImpl findUserDetails(String username) {
     User user = userRepository.findByEmail(username)
         .orElseThrow(() -> new UsernameNotFoundException("User Not Found with email: " + username));
 
@@ -29,6 +65,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             .username(user.getEmail())
             .lastName(user.getLastName())
             .firstName(user.getFirstName())
+            .admin(user.isAdmin())
             .password(user.getPassword())
             .build();
   }
@@ -1,78 +1,286 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.configuration.MetricsConfig;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
-import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionFilter;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SessionService {
+    private static final int PARTICIPANT_BATCH_SIZE = 1000;
+
+    private static final String UNKNOWN_TEACHER = "Unknown teacher";
+
+    private static final String VERSION_REQUIRED = "version is required";
+
+    private static final String CAPACITY_BELOW_PARTICIPANTS = "capacity is below the number of participants";
+
+    private static final String PARTICIPANTS_ABOVE_CAPACITY = "more participants than the capacity allows";
+
     private final SessionRepository sessionRepository;
 
+    private final TeacherRepository teacherRepository;
+
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    public SessionService(SessionRepository sessionRepository, TeacherRepository teacherRepository,
+                          UserRepository userRepository) {
         this.sessionRepository = sessionRepository;
+        this.teacherRepository = teacherRepository;
         this.userRepository = userRepository;
     }
 
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        checkTeacher(session);
+        checkCapacity(session);
+        return this.sessionRepository.saveAndFlush(session);
     }
 
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public void delete(Long id) {
         this.sessionRepository.deleteById(id);
     }
 
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public List<Session> findAll() {
-        return this.sessionRepository.findAll();
+        return this.sessionRepository.findAllWithTeacher();
+    }
+
+    /**
+     * Inserts new sessions and updates existing ones in one transaction. Sessions to update must carry the version the
+     * client read; they are loaded with their participants in a single query first and only their editable fields are
+     * copied over, as in {@link #update}, so the stored participants are kept. Ids come from a pooled table generator
+     * so Hibernate can batch the inserts. Teachers are expected to have been checked by the caller.
+     */
+    @Transactional
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public List<Session> saveAll(List<Session> sessions) {
+        List<Long> ids = sessions.stream().map(Session::getId).filter(Objects::nonNull).collect(Collectors.toList());
+        if (sessions.stream().anyMatch(session -> session.getId() != null && session.getVersion() == null)) {
+            throw new BadRequestException(VERSION_REQUIRED);
+        }
+        Map<Long, Session> existing = ids.isEmpty() ? Collections.emptyMap()
+                : this.sessionRepository.findAllWithUsersById(ids).stream()
+                        .collect(Collectors.toMap(Session::getId, Function.identity()));
+        if (existing.size() != new HashSet<>(ids).size()) {
+            throw new NotFoundException();
+        }
+
+        List<Session> merged = new ArrayList<>(sessions.size());
+        for (Session session : sessions) {
+            if (session.getId() == null) {
+                checkCapacity(session);
+                merged.add(session);
+            } else {
+                merged.add(copyEditableFields(session, existing.get(session.getId())));
+            }
+        }
+
+        try {
+            return this.sessionRepository.saveAllAndFlush(merged);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ConflictException();
+        }
     }
 
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public SessionRepository.CollectionState getCollectionState() {
+        return this.sessionRepository.findCollectionState();
+    }
+
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public SessionRepository.SessionVersion findVersion(Long id) {
+        List<SessionRepository.SessionVersion> versions = this.sessionRepository.findVersions(Collections.singletonList(id));
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Map<Long, Long> findVersions(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        return this.sessionRepository.findVersions(ids).stream()
+                .collect(Collectors.toMap(SessionRepository.SessionVersion::getId, SessionRepository.SessionVersion::getVersion));
+    }
+
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Slice<Session> findPage(SessionFilter filter, int size) {
+        List<Session> sessions = this.sessionRepository.findPage(filter, size + 1);
+        boolean hasNext = sessions.size() > size;
+
+        return new SliceImpl<>(hasNext ? sessions.subList(0, size) : sessions, Pageable.ofSize(size), hasNext);
+    }
+
+    /**
+     * Reads every session through a database cursor and hands them to the consumer in chunks, together with their
+     * participant ids. Each chunk is detached once consumed, so memory stays bounded by the chunk size.
+     */
+    @Transactional(readOnly = true)
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public void streamAll(int chunkSize, BiConsumer<List<Session>, Map<Long, List<Long>>> chunkConsumer) {
+        try (Stream<Session> sessions = this.sessionRepository.streamAllWithTeacher()) {
+            Iterator<Session> iterator = sessions.iterator();
+            List<Session> chunk = new ArrayList<>(chunkSize);
+
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                    chunkConsumer.accept(chunk, findParticipantIds(
+                            chunk.stream().map(Session::getId).collect(Collectors.toList())));
+                    this.sessionRepository.detach(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+    }
+
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Map<Long, List<Long>> findParticipantIds(Collection<Long> sessionIds) {
+        Map<Long, List<Long>> participantIds = new HashMap<>();
+        List<Long> ids = new ArrayList<>(sessionIds);
+
+        for (int from = 0; from < ids.size(); from += PARTICIPANT_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + PARTICIPANT_BATCH_SIZE, ids.size()));
+            for (SessionRepository.Participant participant : this.sessionRepository.findParticipants(batch)) {
+                participantIds.computeIfAbsent(participant.getSessionId(), id -> new ArrayList<>())
+                        .add(participant.getUserId());
+            }
+        }
+
+        return participantIds;
+    }
+
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public List<Long> findParticipantIds(Long sessionId) {
+        return findParticipantIds(Collections.singletonList(sessionId)).getOrDefault(sessionId, Collections.emptyList());
+    }
+
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public Session getById(Long id) {
         return this.sessionRepository.findById(id).orElse(null);
     }
 
+    /**
+     * Updates the editable fields of a stored session; see {@link #copyEditableFields}.
+     */
+    @Transactional
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public Session update(Long id, Session session) {
-        session.setId(id);
-        return this.sessionRepository.save(session);
+        if (session.getVersion() == null) {
+            throw new BadRequestException(VERSION_REQUIRED);
+        }
+        checkTeacher(session);
+        Session existing = copyEditableFields(session, this.sessionRepository.findById(id).orElseThrow(NotFoundException::new));
+
+        try {
+            return this.sessionRepository.saveAndFlush(existing);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ConflictException();
+        }
     }
 
-    public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        User user = this.userRepository.findById(userId).orElse(null);
-        if (session == null || user == null) {
-            throw new NotFoundException();
+    /**
+     * Copies the editable fields onto the stored session. The version the client read must match, so an edit made
+     * in between is reported as a conflict. Participants only change through participate, and the capacity is kept
+     * when the client does not send one; it cannot drop below the number of participants already enrolled.
+     */
+    private Session copyEditableFields(Session session, Session existing) {
+        if (!existing.getVersion().equals(session.getVersion())) {
+            throw new ConflictException();
+        }
+        if (session.getCapacity() != null && existing.getUsers() != null
+                && existing.getUsers().size() > session.getCapacity()) {
+            throw new BadRequestException(CAPACITY_BELOW_PARTICIPANTS);
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
-            throw new BadRequestException();
+        existing.setName(session.getName())
+                .setDate(session.getDate())
+                .setDescription(session.getDescription())
+                .setTeacher(session.getTeacher());
+        if (session.getCapacity() != null) {
+            existing.setCapacity(session.getCapacity());
         }
+        return existing;
+    }
 
-        session.getUsers().add(user);
+    /**
+     * The mapper only sets an unchecked reference to the teacher, which Hibernate fails to load on merge, so the id is
+     * checked first. Other integrity violations are left to propagate with their own message.
+     */
+    private void checkTeacher(Session session) {
+        if (session.getTeacher() != null && !this.teacherRepository.existsById(session.getTeacher().getId())) {
+            throw new BadRequestException(UNKNOWN_TEACHER);
+        }
+    }
 
-        this.sessionRepository.save(session);
+    /**
+     * A new session may be created with participants, but no more than its capacity allows.
+     */
+    private void checkCapacity(Session session) {
+        if (session.getCapacity() != null && session.getUsers() != null
+                && new HashSet<>(session.getUsers()).size() > session.getCapacity()) {
+            throw new BadRequestException(PARTICIPANTS_ABOVE_CAPACITY);
+        }
     }
 
-    public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        if (session == null) {
+    /**
+     * Enrols a user in a session. Bumping the session version first locks its row until commit, so concurrent
+     * enrolments in the same session are serialised and the capacity check in the insert cannot over-book.
+     */
+    @Transactional
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public void participate(Long id, Long userId) {
+        if (this.sessionRepository.incrementVersion(id) == 0) {
             throw new NotFoundException();
         }
+        if (this.sessionRepository.addParticipant(id, userId) > 0) {
+            return;
+        }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(!alreadyParticipate) {
+        if (!this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
+        if (this.sessionRepository.countParticipant(id, userId) > 0) {
             throw new BadRequestException();
         }
+        throw new ConflictException();
+    }
 
-        session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
-
-        this.sessionRepository.save(session);
+    @Transactional
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public void noLongerParticipate(Long id, Long userId) {
+        if (this.sessionRepository.incrementVersion(id) == 0) {
+            throw new NotFoundException();
+        }
+        if (this.sessionRepository.removeParticipant(id, userId) == 0) {
+            throw new BadRequestException();
+        }
     }
 }
@@ -1,10 +1,18 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.configuration.MetricsConfig;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class TeacherService {
@@ -14,11 +22,38 @@ public class TeacherService {
         this.teacherRepository = teacherRepository;
     }
 
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public List<Teacher> findAll() {
         return this.teacherRepository.findAll();
     }
 
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public Teacher findById(Long id) {
         return this.teacherRepository.findById(id).orElse(null);
     }
+
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public TeacherRepository.CollectionState getCollectionState() {
+        return this.teacherRepository.findCollectionState();
+    }
+
+    /**
+     * Loads the teachers with a single query, keyed by id. Unknown ids are simply absent from the map.
+     */
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Map<Long, Teacher> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        return this.teacherRepository.findAllById(new HashSet<>(ids)).stream()
+                .collect(Collectors.toMap(Teacher::getId, Function.identity()));
+    }
+
+    /**
+     * Returns an uninitialised proxy, for callers that only need the teacher as a foreign key.
+     */
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Teacher getReference(Long id) {
+        return this.teacherRepository.getById(id);
+    }
 }
@@ -1,22 +1,84 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.configuration.MetricsConfig;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtRevocationService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 public class UserService {
     private final UserRepository userRepository;
 
-    public UserService(UserRepository userRepository) {
+    private final JwtRevocationService revocationService;
+
+    private final UserDetailsCache userDetailsCache;
+
+    public UserService(UserRepository userRepository,
+                       JwtRevocationService revocationService,
+                       UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
+        this.revocationService = revocationService;
+        this.userDetailsCache = userDetailsCache;
     }
 
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public void delete(Long id) {
-        this.userRepository.deleteById(id);
+        this.userRepository.findById(id).ifPresent(user -> {
+            this.userRepository.delete(user);
+            this.revocationService.revokeAll(user.getId());
+            this.userDetailsCache.invalidate(user.getEmail());
+        });
     }
 
+    @Timed(MetricsConfig.SERVICE_TIMER)
     public User findById(Long id) {
         return this.userRepository.findById(id).orElse(null);
     }
+
+    /**
+     * Loads the users with a single query, in the order of the given ids and without duplicates.
+     *
+     * @throws BadRequestException when some ids do not match any user
+     */
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public List<User> findAllById(Collection<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, User> usersById = findByIds(uniqueIds);
+        List<Long> missingIds = uniqueIds.stream().filter(id -> !usersById.containsKey(id)).collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            throw new BadRequestException("Unknown user ids: " + missingIds);
+        }
+
+        return uniqueIds.stream().map(usersById::get).collect(Collectors.toList());
+    }
+
+    /**
+     * Loads the users with a single query, keyed by id. Unknown ids are simply absent from the map.
+     */
+    @Timed(MetricsConfig.SERVICE_TIMER)
+    public Map<Long, User> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        return this.userRepository.findAllById(new LinkedHashSet<>(ids)).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
 }
@@ -0,0 +1,20 @@
+-- PARTICIPATE had no key: drop duplicate enrolments before enforcing uniqueness
+CREATE TABLE `PARTICIPATE_DEDUP` AS
+SELECT DISTINCT `user_id`, `session_id`
+FROM `PARTICIPATE`
+WHERE `user_id` IS NOT NULL AND `session_id` IS NOT NULL;
+
+DELETE FROM `PARTICIPATE`;
+
+INSERT INTO `PARTICIPATE` (`user_id`, `session_id`)
+SELECT `user_id`, `session_id` FROM `PARTICIPATE_DEDUP`;
+
+DROP TABLE `PARTICIPATE_DEDUP`;
+
+ALTER TABLE `PARTICIPATE` MODIFY `user_id` INT NOT NULL;
+ALTER TABLE `PARTICIPATE` MODIFY `session_id` INT NOT NULL;
+ALTER TABLE `PARTICIPATE` ADD PRIMARY KEY (`session_id`, `user_id`);
+CREATE INDEX `idx_participate_user_session` ON `PARTICIPATE` (`user_id`, `session_id`);
+
+CREATE INDEX `idx_sessions_date` ON `SESSIONS` (`date`);
+CREATE INDEX `idx_sessions_teacher_id` ON `SESSIONS` (`teacher_id`);
@@ -0,0 +1,2 @@
+ALTER TABLE `SESSIONS` ADD COLUMN `version` BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE `SESSIONS` ADD COLUMN `capacity` INT NULL;
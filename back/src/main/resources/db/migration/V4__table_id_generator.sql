@@ -0,0 +1,11 @@
+-- Sessions and users take their ids from hibernate_sequences (pooled-lo, blocks of 50) so inserts can be batched
+CREATE TABLE `hibernate_sequences` (
+  `sequence_name` VARCHAR(255) NOT NULL PRIMARY KEY,
+  `next_val` BIGINT
+);
+
+INSERT INTO `hibernate_sequences` (`sequence_name`, `next_val`)
+SELECT 'SESSIONS', COALESCE(MAX(`id`), 0) + 1 FROM `SESSIONS`;
+
+INSERT INTO `hibernate_sequences` (`sequence_name`, `next_val`)
+SELECT 'USERS', COALESCE(MAX(`id`), 0) + 1 FROM `USERS`;
@@ -0,0 +1,2 @@
+-- The unique email was only declared on the entity, and so never reached a database built by the migrations
+CREATE UNIQUE INDEX `uk_users_email` ON `USERS` (`email`);
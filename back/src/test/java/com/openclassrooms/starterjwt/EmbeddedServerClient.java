@@ -0,0 +1,58 @@
+package com.openclassrooms.starterjwt;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.response.JwtResponse;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Calls the embedded server over a real connection, for tests about the connector itself, which MockMvc bypasses.
+ */
+public class EmbeddedServerClient {
+    private final int port;
+
+    private final ObjectMapper objectMapper;
+
+    public EmbeddedServerClient(int port, ObjectMapper objectMapper) {
+        this.port = port;
+        this.objectMapper = objectMapper;
+    }
+
+    public static OkHttpClient client(Protocol protocol) {
+        return new OkHttpClient.Builder().protocols(Collections.singletonList(protocol)).build();
+    }
+
+    public String login(String email, String password) throws IOException {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(email);
+        loginRequest.setPassword(password);
+        try (Response response = client(Protocol.HTTP_1_1).newCall(new Request.Builder()
+                .url(url("/api/auth/login"))
+                .post(RequestBody.create(MediaType.get("application/json"), objectMapper.writeValueAsString(loginRequest)))
+                .build()).execute()) {
+            return objectMapper.readValue(response.body().string(), JwtResponse.class).getToken();
+        }
+    }
+
+    public Request get(String path, String token, String acceptEncoding) {
+        // An explicit Accept-Encoding stops OkHttp from decompressing, so the body is what went over the wire
+        return new Request.Builder()
+                .url(url(path))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", acceptEncoding)
+                .build();
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+}
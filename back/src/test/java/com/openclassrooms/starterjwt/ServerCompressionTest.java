@@ -0,0 +1,112 @@
+package com.openclassrooms.starterjwt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * Exercises the embedded server itself, which MockMvc bypasses.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class ServerCompressionTest {
+    private static final String EMAIL = "compression@test.com";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private EmbeddedServerClient server;
+
+    private List<Long> sessionIds;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userRepository.save(new User(EMAIL, "Last", "First", passwordEncoder.encode("password"), false));
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sessions.add(Session.builder()
+                    .name("Session " + i)
+                    .date(new Date())
+                    .description(String.join("", Collections.nCopies(50, "Breathe in, breathe out. ")))
+                    .users(new ArrayList<>())
+                    .build());
+        }
+        sessionIds = sessionRepository.saveAll(sessions).stream().map(Session::getId).collect(Collectors.toList());
+
+        server = new EmbeddedServerClient(port, objectMapper);
+        token = server.login(EMAIL, "password");
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionRepository.deleteAllByIdInBatch(sessionIds);
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void listing_IsGzippedOverHttp11() throws Exception {
+        try (Response response = list(Protocol.HTTP_1_1, "gzip")) {
+            assertEquals(200, response.code());
+            assertEquals(Protocol.HTTP_1_1, response.protocol());
+            assertEquals("gzip", response.header("Content-Encoding"));
+        }
+    }
+
+    @Test
+    void listing_IsGzippedOverH2c() throws Exception {
+        try (Response response = list(Protocol.H2_PRIOR_KNOWLEDGE, "gzip")) {
+            assertEquals(200, response.code());
+            assertEquals(Protocol.H2_PRIOR_KNOWLEDGE, response.protocol());
+            assertEquals("gzip", response.header("Content-Encoding"));
+        }
+    }
+
+    @Test
+    void listing_IsSentAsIsWithoutAcceptEncoding() throws Exception {
+        try (Response response = list(Protocol.HTTP_1_1, "identity")) {
+            assertNull(response.header("Content-Encoding"));
+            assertTrue(response.body().bytes().length > 20 * 1000);
+        }
+    }
+
+    private Response list(Protocol protocol, String acceptEncoding) throws Exception {
+        return EmbeddedServerClient.client(protocol).newCall(server.get("/api/session", token, acceptEncoding)).execute();
+    }
+}
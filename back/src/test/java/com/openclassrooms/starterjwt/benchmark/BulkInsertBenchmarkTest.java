@@ -0,0 +1,127 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+
+/**
+ * Insert throughput of the bulk paths with JDBC batching on and off. Both arms save the whole list in one
+ * transaction, so the only difference is whether Hibernate groups the inserts into batches.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=BulkInsertBenchmarkTest}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class BulkInsertBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(BulkInsertBenchmarkTest.class);
+
+    private static final int ROWS = 5000;
+
+    private static final String PREFIX = "bulk-bench";
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        // The benchmark sessions have no participants, so PARTICIPATE is left untouched
+        jdbcTemplate.update("DELETE FROM SESSIONS WHERE name LIKE ?", PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM USERS WHERE email LIKE ?", PREFIX + "%");
+    }
+
+    @Test
+    void insertThroughput() {
+        // Warm up both paths so the JIT and the id block allocation do not skew the first run
+        withoutBatching(() -> sessionRepository.saveAll(sessions("warmup", 500)));
+        sessionService.saveAll(sessions("warmup", 500));
+
+        long start = System.nanoTime();
+        withoutBatching(() -> sessionRepository.saveAll(sessions("unbatched", ROWS)));
+        double unbatchedRate = rate(start);
+
+        start = System.nanoTime();
+        sessionService.saveAll(sessions("batched", ROWS));
+        double batchedRate = rate(start);
+
+        start = System.nanoTime();
+        withoutBatching(() -> userRepository.saveAll(users("unbatched", ROWS)));
+        double unbatchedUserRate = rate(start);
+
+        start = System.nanoTime();
+        userRepository.saveAll(users("batched", ROWS));
+        double batchedUserRate = rate(start);
+
+        logger.info("sessions: saveAll without batching {} rows/s, with batching {} rows/s", Math.round(unbatchedRate), Math.round(batchedRate));
+        logger.info("users:    saveAll without batching {} rows/s, with batching {} rows/s", Math.round(unbatchedUserRate), Math.round(batchedUserRate));
+    }
+
+    /**
+     * Runs the work in one transaction whose Hibernate session sends each insert on its own.
+     */
+    private void withoutBatching(Runnable work) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            entityManager.unwrap(org.hibernate.Session.class).setJdbcBatchSize(1);
+            work.run();
+        });
+    }
+
+    private static double rate(long startNanos) {
+        return ROWS / ((System.nanoTime() - startNanos) / 1e9);
+    }
+
+    private static List<Session> sessions(String prefix, int count) {
+        List<Session> sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sessions.add(Session.builder()
+                    .name(PREFIX + " " + prefix + " " + i)
+                    .date(new Date())
+                    .description("Benchmark")
+                    .users(new ArrayList<>())
+                    .build());
+        }
+        return sessions;
+    }
+
+    private static List<User> users(String prefix, int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new User(PREFIX + "-" + prefix + i + "@test.com", "Bench", "Mark", "encoded", false));
+        }
+        return users;
+    }
+}
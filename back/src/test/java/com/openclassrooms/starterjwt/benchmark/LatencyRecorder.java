@@ -0,0 +1,52 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Collects latencies in nanoseconds and reports percentiles in milliseconds.
+ */
+public class LatencyRecorder {
+    private long[] samples;
+    private int count;
+
+    public LatencyRecorder(int expectedSamples) {
+        this.samples = new long[Math.max(expectedSamples, 16)];
+    }
+
+    public void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public double percentileMs(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+    }
+
+    public double meanMs() {
+        if (count == 0) {
+            return 0;
+        }
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += samples[i];
+        }
+        return total / count / 1_000_000.0;
+    }
+
+    public String summary() {
+        return String.format("n=%d mean=%.2fms p50=%.2fms p95=%.2fms p99=%.2fms",
+                count, meanMs(), percentileMs(50), percentileMs(95), percentileMs(99));
+    }
+}
@@ -0,0 +1,123 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
+
+/**
+ * Login latency and statements per login, compared with the previous path that
+ * re-read the user after authentication. Run with {@code mvn test -Dbenchmark=true -Dtest=LoginLatencyBenchmarkTest}.
+ */
+@SpringBootTest(properties = "oc.app.userCacheEnabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class LoginLatencyBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(LoginLatencyBenchmarkTest.class);
+
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 300;
+    private static final String EMAIL = "benchmark@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(new User(EMAIL, "Bench", "Mark", passwordEncoder.encode("password123"), false));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+        userDetailsCache.invalidate(EMAIL);
+    }
+
+    @Test
+    void loginLatency() throws Exception {
+        String body = loginBody();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < WARMUP; i++) {
+            login(body, false);
+            login(body, true);
+        }
+
+        LatencyRecorder current = new LatencyRecorder(ITERATIONS);
+        LatencyRecorder legacy = new LatencyRecorder(ITERATIONS);
+        long currentStatements = 0;
+        long legacyStatements = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            statistics.clear();
+            current.record(login(body, false));
+            currentStatements += statistics.getPrepareStatementCount();
+
+            statistics.clear();
+            legacy.record(login(body, true));
+            legacyStatements += statistics.getPrepareStatementCount();
+        }
+
+        logger.info("login (single lookup)   {} statements/login={}", current.summary(),
+                (double) currentStatements / ITERATIONS);
+        logger.info("login (with re-lookup)  {} statements/login={}", legacy.summary(),
+                (double) legacyStatements / ITERATIONS);
+    }
+
+    private long login(String body, boolean withLegacyLookup) throws Exception {
+        long start = System.nanoTime();
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk());
+        if (withLegacyLookup) {
+            // The query authenticateUser used to run to read the admin flag
+            userRepository.findByEmail(EMAIL);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private String loginBody() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(EMAIL);
+        loginRequest.setPassword("password123");
+        return objectMapper.writeValueAsString(loginRequest);
+    }
+}
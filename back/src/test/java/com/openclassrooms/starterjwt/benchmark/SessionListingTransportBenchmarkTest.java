@@ -0,0 +1,133 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.EmbeddedServerClient;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Bytes on the wire and latency of a 5,000-session listing over HTTP/1.1 and h2c, with and without gzip.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=SessionListingTransportBenchmarkTest}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class SessionListingTransportBenchmarkTest {
+    private static final Logger logger = LoggerFactory.getLogger(SessionListingTransportBenchmarkTest.class);
+
+    private static final int SESSIONS = 5000;
+    private static final int WARMUP = 10;
+    private static final int ITERATIONS = 50;
+    private static final String EMAIL = "transport@example.com";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private EmbeddedServerClient server;
+
+    private List<Long> sessionIds;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        userRepository.save(new User(EMAIL, "Bench", "Mark", passwordEncoder.encode("password123"), false));
+        // Descriptions at the 2,000 character limit, made of words so compression ratios are realistic
+        String description = String.join(" ", Collections.nCopies(2000 / 25, "Stretch, breathe and hold")).substring(0, 2000);
+        List<Session> sessions = new ArrayList<>(SESSIONS);
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions.add(Session.builder()
+                    .name("Session " + i)
+                    .date(new Date())
+                    .description(description)
+                    .users(new ArrayList<>())
+                    .build());
+        }
+        sessionIds = sessionService.saveAll(sessions).stream().map(Session::getId).collect(Collectors.toList());
+
+        server = new EmbeddedServerClient(port, objectMapper);
+        token = server.login(EMAIL, "password123");
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionRepository.deleteAllByIdInBatch(sessionIds);
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void listingTransport() throws Exception {
+        measure(Protocol.HTTP_1_1, "identity");
+        measure(Protocol.HTTP_1_1, "gzip");
+        measure(Protocol.H2_PRIOR_KNOWLEDGE, "identity");
+        measure(Protocol.H2_PRIOR_KNOWLEDGE, "gzip");
+    }
+
+    private void measure(Protocol protocol, String acceptEncoding) throws Exception {
+        OkHttpClient client = EmbeddedServerClient.client(protocol);
+        Request request = server.get("/api/session", token, acceptEncoding);
+
+        long bytes = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            bytes = fetch(client, request);
+        }
+        LatencyRecorder recorder = new LatencyRecorder(ITERATIONS);
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            fetch(client, request);
+            recorder.record(System.nanoTime() - start);
+        }
+
+        logger.info("{} {}: {} bytes, {}", protocol, acceptEncoding, bytes, recorder.summary());
+    }
+
+    private static long fetch(OkHttpClient client, Request request) throws Exception {
+        try (Response response = client.newCall(request).execute()) {
+            if (response.code() != 200) {
+                throw new IllegalStateException("Unexpected status " + response.code());
+            }
+            return response.body().bytes().length;
+        }
+    }
+}
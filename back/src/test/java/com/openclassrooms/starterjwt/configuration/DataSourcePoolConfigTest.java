@@ -0,0 +1,45 @@
+package com.openclassrooms.starterjwt.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+public class DataSourcePoolConfigTest {
+
+    @Test
+    void poolSizeIsTwiceTheCoresPlusOne() {
+        assertEquals(9, DataSourcePoolConfig.poolSize(4, 0));
+    }
+
+    @Test
+    void poolSizeIsCappedByTheDatabaseShare() {
+        assertEquals(6, DataSourcePoolConfig.poolSize(4, 6));
+        assertEquals(9, DataSourcePoolConfig.poolSize(4, 50));
+    }
+
+    @Test
+    void derivesThePoolSizeWhenNoneIsConfigured() {
+        BeanPostProcessor sizer = DataSourcePoolConfig.hikariPoolSizer(new MockEnvironment());
+        HikariDataSource dataSource = new HikariDataSource();
+
+        sizer.postProcessAfterInitialization(dataSource, "dataSource");
+
+        assertEquals(DataSourcePoolConfig.poolSize(Runtime.getRuntime().availableProcessors(), 0),
+                dataSource.getMaximumPoolSize());
+    }
+
+    @Test
+    void keepsAnExplicitPoolSize() {
+        BeanPostProcessor sizer = DataSourcePoolConfig.hikariPoolSizer(
+                new MockEnvironment().withProperty("spring.datasource.hikari.maximum-pool-size", "3"));
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(3);
+
+        sizer.postProcessAfterInitialization(dataSource, "dataSource");
+
+        assertEquals(3, dataSource.getMaximumPoolSize());
+    }
+}
@@ -5,12 +5,18 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -24,6 +30,7 @@ import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -43,6 +50,15 @@ public class AuthControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
     private final String REGISTER_URL = "/api/auth/register";
     private final String LOGIN_URL = "/api/auth/login";
 
@@ -155,4 +171,50 @@ public class AuthControllerIntegrationTest {
                 .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isUnauthorized());
     }
+
+    @Test
+    public void testLoginUser_QueriesUserOnce() throws Exception {
+        // Create and save an admin, making sure the login is not served from the cache
+        User existingUser = new User("admin@example.com", "Admin", "User",
+                passwordEncoder.encode("password123"), true);
+        userRepository.saveAndFlush(existingUser);
+        userDetailsCache.invalidate("admin@example.com");
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("admin@example.com");
+        loginRequest.setPassword("password123");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(post(LOGIN_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.admin", is(true)));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testLoginUser_RehashesLegacyPassword() throws Exception {
+        // Hash stored without the {bcrypt} prefix and at another cost than the configured one
+        String legacyHash = new BCryptPasswordEncoder(5).encode("password123");
+        userRepository.saveAndFlush(new User("legacy@example.com", "Legacy", "User", legacyHash, false));
+        userDetailsCache.invalidate("legacy@example.com");
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail("legacy@example.com");
+        loginRequest.setPassword("password123");
+
+        mockMvc.perform(post(LOGIN_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk());
+
+        entityManager.clear();
+        User user = userRepository.findByEmail("legacy@example.com").get();
+        assertTrue(user.getPassword().startsWith("{bcrypt}$2a$04$"));
+        assertTrue(passwordEncoder.matches("password123", user.getPassword()));
+    }
 }
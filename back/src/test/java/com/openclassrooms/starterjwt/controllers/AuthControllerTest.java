@@ -1,7 +1,5 @@
 package com.openclassrooms.starterjwt.controllers;
 
-import java.util.Optional;
-
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +24,7 @@ import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,12 +40,14 @@ public class AuthControllerTest {
     private JwtUtils jwtUtils;
     @Mock
     private Authentication authentication;
+    @Mock
+    private UserDetailsCache userDetailsCache;
 
     private AuthController authController;
 
     @BeforeEach
     void setUp() {
-        authController = new AuthController(authenticationManager, passwordEncoder, jwtUtils, userRepository);
+        authController = new AuthController(authenticationManager, passwordEncoder, jwtUtils, userRepository, userDetailsCache);
     }
 
     @Test
@@ -61,16 +62,13 @@ public class AuthControllerTest {
                 .username("test@test.com")
                 .firstName("John")
                 .lastName("Doe")
+                .admin(true)
                 .build();
 
-        User user = new User();
-        user.setAdmin(true);
-
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(userDetails);
         when(jwtUtils.generateJwtToken(authentication)).thenReturn("test-jwt-token");
-        when(userRepository.findByEmail(userDetails.getUsername())).thenReturn(Optional.of(user));
 
         // Act
         ResponseEntity<?> response = authController.authenticateUser(loginRequest);
@@ -84,6 +82,7 @@ public class AuthControllerTest {
         assertEquals(userDetails.getFirstName(), jwtResponse.getFirstName());
         assertEquals(userDetails.getLastName(), jwtResponse.getLastName());
         assertTrue(jwtResponse.getAdmin());
+        verify(userRepository, never()).findByEmail(any());
     }
 
     @Test
@@ -106,6 +105,7 @@ public class AuthControllerTest {
         MessageResponse messageResponse = (MessageResponse) response.getBody();
         assertEquals("User registered successfully!", messageResponse.getMessage());
         verify(userRepository).save(any(User.class));
+        verify(userDetailsCache).invalidate("new@test.com");
     }
 
     @Test
@@ -1,10 +1,18 @@
 package com.openclassrooms.starterjwt.controllers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
+import javax.persistence.EntityManager;
+
 import static org.hamcrest.Matchers.hasSize;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +23,8 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import org.springframework.transaction.annotation.Transactional;
@@ -57,6 +67,9 @@ public class SessionControllerIntegrationTest {
 
     @Autowired
     private SessionMapper sessionMapper;
+
+    @Autowired
+    private EntityManager entityManager;
     
     @Autowired
     private TeacherRepository teacherRepository;
@@ -107,6 +120,16 @@ public class SessionControllerIntegrationTest {
         testSession = sessionRepository.save(testSession);
     }
 
+    private SessionDto bulkSessionDto(String name, List<Long> users) {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName(name);
+        sessionDto.setDate(new Date());
+        sessionDto.setDescription("Bulk Description");
+        sessionDto.setTeacher_id(testTeacher.getId());
+        sessionDto.setUsers(users);
+        return sessionDto;
+    }
+
     // Then in your createTeacher method:
     private Teacher createTeacher(Teacher teacher) {
         return teacherRepository.save(teacher);
@@ -123,6 +146,267 @@ public class SessionControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].description").value(testSession.getDescription()));
     }
 
+    @Test
+    @WithMockUser
+    public void testGetSessionPage_FollowsCursor() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            sessionRepository.save(Session.builder()
+                    .name("Later Session " + i)
+                    .date(new Date(testSession.getDate().getTime() + 1000))
+                    .description("Test Description")
+                    .teacher(testTeacher)
+                    .users(new ArrayList<>())
+                    .build());
+        }
+
+        String firstPage = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/page")
+                .param("size", "2")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].name").value(testSession.getName()))
+                .andExpect(jsonPath("$.content[1].name").value("Later Session 0"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session/page")
+                .param("size", "2")
+                .param("after", cursor)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name").value("Later Session 1"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetSessionPage_InvalidParameters() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session/page")
+                .param("after", "not-a-cursor")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session/page")
+                .param("size", "0")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    public void testCreateSessionWithUnknownReferences() throws Exception {
+        SessionDto newSessionDto = new SessionDto();
+        newSessionDto.setName("New Test Session");
+        newSessionDto.setDate(new Date());
+        newSessionDto.setDescription("New Test Description");
+        newSessionDto.setTeacher_id(testTeacher.getId());
+        newSessionDto.setUsers(Arrays.asList(testUser.getId(), testUser.getId() + 1000));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(newSessionDto)))
+                .andExpect(status().isBadRequest());
+
+        newSessionDto.setTeacher_id(testTeacher.getId() + 1000);
+        newSessionDto.setUsers(new ArrayList<>());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(newSessionDto)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    public void testCreateSessionAboveCapacity() throws Exception {
+        User otherUser = userRepository.save(new User("other@example.com", "User", "Other", "password", false));
+        SessionDto full = bulkSessionDto("Full", Arrays.asList(testUser.getId(), otherUser.getId()));
+        full.setCapacity(1);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(full)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Collections.singletonList(full))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].status").value("INVALID"));
+
+        assertEquals(1, sessionRepository.count());
+    }
+
+    @Test
+    @WithMockUser
+    public void testBulkSaveSessions_BatchesInsertsAndLookups() throws Exception {
+        List<SessionDto> sessionDtos = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            sessionDtos.add(bulkSessionDto("Bulk Session " + i, Collections.singletonList(testUser.getId())));
+        }
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        entityManager.flush();
+        statistics.clear();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sessionDtos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(500)))
+                .andExpect(jsonPath("$[499].index").value(499))
+                .andExpect(jsonPath("$[499].status").value("CREATED"))
+                .andExpect(jsonPath("$[499].session.users[0]").value(testUser.getId()));
+        entityManager.flush();
+        long queries = statistics.getQueryExecutionCount();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(501, sessionRepository.count());
+        // At most one lookup for teachers (it may come from the query cache) and one for users; the 1000 inserts reuse
+        // one prepared statement per table across batches
+        assertTrue(queries <= 2, "expected batched lookups, got " + queries + " queries");
+        assertTrue(statements < 10, "expected batched statements, got " + statements);
+    }
+
+    @Test
+    @WithMockUser
+    public void testBulkSaveSessions_CreatesAndUpdatesInOneRequest() throws Exception {
+        User otherUser = userRepository.save(new User("other@example.com", "User", "Other", "password", false));
+        sessionService.participate(testSession.getId(), testUser.getId());
+        entityManager.flush();
+        entityManager.clear();
+        SessionDto update = sessionMapper.toDto(sessionRepository.findById(testSession.getId()).get());
+        update.setName("Renamed");
+        update.setUsers(Collections.singletonList(otherUser.getId()));
+        entityManager.clear();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(
+                        bulkSessionDto("New", Collections.singletonList(otherUser.getId())), update))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("UPDATED"))
+                .andExpect(jsonPath("$[1].session.name").value("Renamed"));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(2, sessionRepository.count());
+        assertEquals("Renamed", sessionRepository.findById(testSession.getId()).get().getName());
+        assertEquals(Collections.singletonList(testUser.getId()), sessionService.findParticipantIds(testSession.getId()));
+    }
+
+    @Test
+    @WithMockUser
+    public void testBulkSaveSessions_RejectsUpdatesWithoutVersionOrBelowEnrolment() throws Exception {
+        sessionService.participate(testSession.getId(), testUser.getId());
+        entityManager.flush();
+        entityManager.clear();
+        SessionDto withoutVersion = sessionMapper.toDto(sessionRepository.findById(testSession.getId()).get());
+        withoutVersion.setVersion(null);
+        SessionDto belowEnrolment = sessionMapper.toDto(sessionRepository.findById(testSession.getId()).get());
+        belowEnrolment.setCapacity(0);
+        entityManager.clear();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Collections.singletonList(withoutVersion))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].status").value("INVALID"))
+                .andExpect(jsonPath("$[0].errors[0]").value("version is required to update a session"));
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Collections.singletonList(belowEnrolment))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].status").value("INVALID"));
+
+        assertEquals(Collections.singletonList(testUser.getId()), sessionService.findParticipantIds(testSession.getId()));
+    }
+
+    @Test
+    @WithMockUser
+    public void testBulkSaveSessions_RejectsWholeRequestWithPerItemErrors() throws Exception {
+        SessionDto invalid = new SessionDto();
+        invalid.setName("No teacher nor description");
+        invalid.setDate(new Date());
+        SessionDto unknownTeacher = bulkSessionDto("Unknown teacher", null);
+        unknownTeacher.setTeacher_id(testTeacher.getId() + 1000);
+        SessionDto stale = sessionMapper.toDto(testSession);
+        stale.setVersion(testSession.getVersion() + 1);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/session/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(
+                        bulkSessionDto("Valid", null), invalid, unknownTeacher, stale))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$[0].status").value("SKIPPED"))
+                .andExpect(jsonPath("$[1].status").value("INVALID"))
+                .andExpect(jsonPath("$[1].errors", hasSize(2)))
+                .andExpect(jsonPath("$[2].errors[0]").value("teacher_id unknown teacher " + unknownTeacher.getTeacher_id()))
+                .andExpect(jsonPath("$[3].status").value("CONFLICT"));
+
+        assertEquals(1, sessionRepository.count());
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetAllSessions_ConditionalGet() throws Exception {
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/session"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        sessionService.participate(testSession.getId(), testUser.getId());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].users[0]").value(testUser.getId()));
+    }
+
+    @Test
+    @WithMockUser
+    public void testGetSessionById_ConditionalGet() throws Exception {
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/session/{id}", testSession.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session/{id}", testSession.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        sessionService.participate(testSession.getId(), testUser.getId());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/session/{id}", testSession.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testToEntity_ResolvesParticipantsWithOneQuery() {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            userIds.add(userRepository.save(new User("bulk" + i + "@test.com", "Last", "First", "password", false)).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        SessionDto sessionDto = sessionMapper.toDto(testSession);
+        sessionDto.setUsers(userIds);
+        Session session = sessionMapper.toEntity(sessionDto);
+
+        assertEquals(200, session.getUsers().size());
+        assertEquals(userIds.get(199), session.getUsers().get(199).getId());
+        assertEquals(testTeacher.getId(), session.getTeacher().getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
     @Test
     @WithMockUser
     public void testGetSessionById() throws Exception {
@@ -194,6 +478,30 @@ public class SessionControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @WithMockUser
+    public void testUpdateSessionWithoutVersion() throws Exception {
+        SessionDto updatedSessionDto = sessionMapper.toDto(testSession);
+        updatedSessionDto.setVersion(null);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/session/{id}", testSession.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedSessionDto)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    public void testUpdateSessionWithUnknownTeacher() throws Exception {
+        SessionDto updatedSessionDto = sessionMapper.toDto(testSession);
+        updatedSessionDto.setTeacher_id(testTeacher.getId() + 1000);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/session/{id}", testSession.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedSessionDto)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser
     public void testDeleteSession() throws Exception {
@@ -1,28 +1,62 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import javax.validation.Validation;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.SessionBulkItemDto;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionPageDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionCursor;
+import com.openclassrooms.starterjwt.repository.SessionFilter;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.UserService;
 
 @ExtendWith(MockitoExtension.class)
 public class SessionControllerTest {
@@ -31,14 +65,21 @@ public class SessionControllerTest {
     private SessionMapper sessionMapper;
     @Mock
     private SessionService sessionService;
+    @Mock
+    private TeacherService teacherService;
+    @Mock
+    private UserService userService;
 
     private SessionController sessionController;
     private Session session;
     private SessionDto sessionDto;
+    private SessionRepository.SessionVersion version;
+    private ServletWebRequest request;
 
     @BeforeEach
     void setUp() {
-        sessionController = new SessionController(sessionService, sessionMapper);
+        sessionController = new SessionController(sessionService, sessionMapper, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), teacherService, userService);
         
         session = new Session();
         session.setId(1L);
@@ -49,31 +90,87 @@ public class SessionControllerTest {
         sessionDto.setId(1L);
         sessionDto.setName("Yoga Session");
         sessionDto.setDate(new Date());
+
+        LocalDateTime updatedAt = LocalDateTime.now();
+        version = new SessionRepository.SessionVersion() {
+            @Override
+            public Long getId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getVersion() {
+                return 2L;
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return updatedAt;
+            }
+        };
+        request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/session"), new MockHttpServletResponse());
+    }
+
+    private static SessionRepository.CollectionState collectionState(Long count, Long versionSum) {
+        LocalDateTime lastModified = LocalDateTime.of(2024, 1, 1, 10, 0);
+        return new SessionRepository.CollectionState() {
+            @Override
+            public Long getCount() {
+                return count;
+            }
+
+            @Override
+            public LocalDateTime getLastModified() {
+                return lastModified;
+            }
+
+            @Override
+            public Long getVersionSum() {
+                return versionSum;
+            }
+        };
     }
 
     @Test
     void findById_Success() {
+        List<Long> userIds = Arrays.asList(2L, 3L);
+        when(sessionService.findVersion(1L)).thenReturn(version);
         when(sessionService.getById(1L)).thenReturn(session);
-        when(sessionMapper.toDto(session)).thenReturn(sessionDto);
+        when(sessionService.findParticipantIds(1L)).thenReturn(userIds);
+        when(sessionMapper.toDto(session, userIds)).thenReturn(sessionDto);
 
-        ResponseEntity<?> response = sessionController.findById("1");
+        ResponseEntity<?> response = sessionController.findById("1", request);
 
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertEquals(sessionDto, response.getBody());
+        assertNotNull(response.getHeaders().getETag());
     }
 
     @Test
-    void findById_NotFound() {
-        when(sessionService.getById(1L)).thenReturn(null);
+    void findById_NotModified() {
+        when(sessionService.findVersion(1L)).thenReturn(version);
+        when(sessionService.getById(1L)).thenReturn(session);
+        String eTag = sessionController.findById("1", request).getHeaders().getETag();
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/api/session/1");
+        conditional.addHeader("If-None-Match", eTag);
+
+        ResponseEntity<?> response = sessionController.findById("1",
+                new ServletWebRequest(conditional, new MockHttpServletResponse()));
 
-        ResponseEntity<?> response = sessionController.findById("1");
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(sessionService, times(1)).getById(1L);
+    }
+
+    @Test
+    void findById_NotFound() {
+        ResponseEntity<?> response = sessionController.findById("1", request);
 
         assertTrue(response.getStatusCode().is4xxClientError());
     }
 
     @Test
     void findById_BadRequest() {
-        ResponseEntity<?> response = sessionController.findById("invalid");
+        ResponseEntity<?> response = sessionController.findById("invalid", request);
 
         assertTrue(response.getStatusCode().is4xxClientError());
     }
@@ -83,15 +180,90 @@ public class SessionControllerTest {
         List<Session> sessions = Arrays.asList(session);
         List<SessionDto> sessionDtos = Arrays.asList(sessionDto);
 
+        Map<Long, List<Long>> participantIds = Collections.singletonMap(1L, Arrays.asList(2L, 3L));
+
+        when(sessionService.getCollectionState()).thenReturn(collectionState(1L, 0L));
         when(sessionService.findAll()).thenReturn(sessions);
-        when(sessionMapper.toDto(sessions)).thenReturn(sessionDtos);
+        when(sessionService.findParticipantIds(Collections.singletonList(1L))).thenReturn(participantIds);
+        when(sessionMapper.toDto(sessions, participantIds)).thenReturn(sessionDtos);
 
-        ResponseEntity<?> response = sessionController.findAll();
+        ResponseEntity<?> response = sessionController.findAll(request);
 
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertEquals(sessionDtos, response.getBody());
     }
 
+    @Test
+    void findAll_NotModifiedUntilAVersionChanges() {
+        when(sessionService.getCollectionState()).thenReturn(collectionState(1L, 0L));
+        String eTag = sessionController.findAll(request).getHeaders().getETag();
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/api/session");
+        conditional.addHeader("If-None-Match", eTag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, sessionController.findAll(
+                new ServletWebRequest(conditional, new MockHttpServletResponse())).getStatusCode());
+        verify(sessionService, times(1)).findAll();
+
+        when(sessionService.getCollectionState()).thenReturn(collectionState(1L, 1L));
+        assertEquals(HttpStatus.OK, sessionController.findAll(
+                new ServletWebRequest(conditional, new MockHttpServletResponse())).getStatusCode());
+    }
+
+    @Test
+    void findPage_Success() {
+        List<Session> sessions = Arrays.asList(session);
+        List<SessionDto> sessionDtos = Arrays.asList(sessionDto);
+        Map<Long, List<Long>> participantIds = Collections.emptyMap();
+
+        when(sessionService.findPage(any(SessionFilter.class), eq(1)))
+                .thenReturn(new SliceImpl<>(sessions, Pageable.ofSize(1), true));
+        when(sessionService.findParticipantIds(Collections.singletonList(1L))).thenReturn(participantIds);
+        when(sessionMapper.toDto(sessions, participantIds)).thenReturn(sessionDtos);
+
+        ResponseEntity<?> response = sessionController.findPage(1, "desc", null, null, null, 2L, true);
+
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        SessionPageDto page = (SessionPageDto) response.getBody();
+        assertEquals(sessionDtos, page.getContent());
+        assertTrue(page.isHasNext());
+        assertEquals(1L, SessionCursor.decode(page.getNextCursor()).getId());
+    }
+
+    @Test
+    void findPage_BadRequest() {
+        assertTrue(sessionController.findPage(0, "asc", null, null, null, null, null).getStatusCode().is4xxClientError());
+        assertTrue(sessionController.findPage(10, "sideways", null, null, null, null, null).getStatusCode().is4xxClientError());
+        assertTrue(sessionController.findPage(10, "asc", "garbage", null, null, null, null).getStatusCode().is4xxClientError());
+        verify(sessionService, never()).findPage(any(), anyInt());
+    }
+
+    @Test
+    void export_WritesChunksAsSingleJsonArray() throws Exception {
+        Session other = Session.builder().id(2L).name("Other").build();
+        SessionDto otherDto = new SessionDto();
+        otherDto.setId(2L);
+        Map<Long, List<Long>> participantIds = Collections.emptyMap();
+
+        doAnswer(invocation -> {
+            BiConsumer<List<Session>, Map<Long, List<Long>>> consumer = invocation.getArgument(1);
+            consumer.accept(Collections.singletonList(session), participantIds);
+            consumer.accept(Collections.singletonList(other), participantIds);
+            return null;
+        }).when(sessionService).streamAll(anyInt(), any());
+        when(sessionMapper.toDto(Collections.singletonList(session), participantIds)).thenReturn(Arrays.asList(sessionDto));
+        when(sessionMapper.toDto(Collections.singletonList(other), participantIds)).thenReturn(Arrays.asList(otherDto));
+
+        ResponseEntity<StreamingResponseBody> response = sessionController.export();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        JsonNode json = new ObjectMapper().readTree(outputStream.toByteArray());
+        assertEquals(2, json.size());
+        assertEquals(1L, json.get(0).get("id").asLong());
+        assertEquals(2L, json.get(1).get("id").asLong());
+    }
+
     @Test
     void create_Success() {
         when(sessionMapper.toEntity(sessionDto)).thenReturn(session);
@@ -104,9 +276,121 @@ public class SessionControllerTest {
         assertEquals(sessionDto, response.getBody());
     }
 
+    @Test
+    void saveAll_Success() {
+        Teacher teacher = new Teacher();
+        teacher.setId(1L);
+        Map<Long, Teacher> teachers = Collections.singletonMap(1L, teacher);
+        sessionDto.setId(null);
+        sessionDto.setDescription("Description");
+        sessionDto.setTeacher_id(1L);
+        SessionDto update = new SessionDto(1L, "Update", new Date(), 1L, "Description", null, null, 3L, null, null);
+        List<SessionDto> sessionDtos = Arrays.asList(sessionDto, update);
+        Session created = new Session();
+        Session updated = new Session().setId(1L);
+        when(teacherService.findByIds(any())).thenReturn(teachers);
+        when(userService.findByIds(any())).thenReturn(Collections.emptyMap());
+        when(sessionService.findVersions(any())).thenReturn(Collections.singletonMap(1L, 3L));
+        when(sessionMapper.toEntity(sessionDto, teachers, Collections.emptyMap())).thenReturn(created);
+        when(sessionMapper.toEntity(update, teachers, Collections.emptyMap())).thenReturn(updated);
+        when(sessionService.saveAll(Arrays.asList(created, updated))).thenReturn(Arrays.asList(created, updated));
+        when(sessionMapper.toDto(created)).thenReturn(sessionDto);
+        when(sessionMapper.toDto(updated)).thenReturn(update);
+
+        ResponseEntity<?> response = sessionController.saveAll(sessionDtos);
+
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        List<SessionBulkItemDto> results = (List<SessionBulkItemDto>) response.getBody();
+        assertEquals(SessionBulkItemDto.Status.CREATED, results.get(0).getStatus());
+        assertEquals(SessionBulkItemDto.Status.UPDATED, results.get(1).getStatus());
+        assertEquals(update, results.get(1).getSession());
+    }
+
+    @Test
+    void saveAll_ReportsEveryFailingItem() {
+        SessionDto valid = new SessionDto(null, "Valid", new Date(), 1L, "Description", null, null, null, null, null);
+        SessionDto unknownUser = new SessionDto(null, "User", new Date(), 1L, "Description", Arrays.asList(5L), null, null, null, null);
+        SessionDto stale = new SessionDto(2L, "Stale", new Date(), 1L, "Description", null, null, 1L, null, null);
+        SessionDto missing = new SessionDto(3L, "Missing", new Date(), 1L, "Description", null, null, 0L, null, null);
+        Teacher teacher = new Teacher();
+        teacher.setId(1L);
+        when(teacherService.findByIds(any())).thenReturn(Collections.singletonMap(1L, teacher));
+        when(userService.findByIds(any())).thenReturn(Collections.emptyMap());
+        when(sessionService.findVersions(any())).thenReturn(Collections.singletonMap(2L, 4L));
+
+        // sessionDto has an id but neither description, teacher nor version
+        ResponseEntity<?> response = sessionController.saveAll(Arrays.asList(valid, sessionDto, unknownUser, stale, missing));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        List<SessionBulkItemDto> results = (List<SessionBulkItemDto>) response.getBody();
+        assertEquals(Arrays.asList(SessionBulkItemDto.Status.SKIPPED, SessionBulkItemDto.Status.INVALID,
+                        SessionBulkItemDto.Status.INVALID, SessionBulkItemDto.Status.CONFLICT, SessionBulkItemDto.Status.NOT_FOUND),
+                results.stream().map(SessionBulkItemDto::getStatus).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("description must not be null", "teacher_id must not be null",
+                "version is required to update a session"), results.get(1).getErrors());
+        assertEquals(Collections.singletonList("users unknown user ids [5]"), results.get(2).getErrors());
+        verify(sessionService, never()).saveAll(any());
+    }
+
+    @Test
+    void saveAll_RejectsUpdatesWithoutVersionOrBelowEnrolment() {
+        SessionDto withoutVersion = new SessionDto(2L, "No version", new Date(), 1L, "Description", null, null, null, null, null);
+        SessionDto belowEnrolment = new SessionDto(3L, "Full", new Date(), 1L, "Description", null, 1, 4L, null, null);
+        when(teacherService.findByIds(any())).thenReturn(Collections.singletonMap(1L, new Teacher()));
+        Map<Long, Long> versions = new HashMap<>();
+        versions.put(2L, 4L);
+        versions.put(3L, 4L);
+        when(sessionService.findVersions(any())).thenReturn(versions);
+        when(sessionService.findParticipantIds(anyCollection())).thenReturn(Collections.singletonMap(3L, Arrays.asList(1L, 2L)));
+
+        ResponseEntity<?> response = sessionController.saveAll(Arrays.asList(withoutVersion, belowEnrolment));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        List<SessionBulkItemDto> results = (List<SessionBulkItemDto>) response.getBody();
+        assertEquals(Collections.singletonList("version is required to update a session"), results.get(0).getErrors());
+        assertEquals(SessionBulkItemDto.Status.INVALID, results.get(1).getStatus());
+        verify(sessionService, never()).saveAll(any());
+    }
+
+    @Test
+    void saveAll_RejectsNewSessionAboveCapacity() {
+        SessionDto full = new SessionDto(null, "Full", new Date(), 1L, "Description", Arrays.asList(5L, 6L), 1, null, null, null);
+        when(teacherService.findByIds(any())).thenReturn(Collections.singletonMap(1L, new Teacher()));
+        Map<Long, User> users = new HashMap<>();
+        users.put(5L, new User());
+        users.put(6L, new User());
+        when(userService.findByIds(any())).thenReturn(users);
+
+        ResponseEntity<?> response = sessionController.saveAll(Collections.singletonList(full));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        List<SessionBulkItemDto> results = (List<SessionBulkItemDto>) response.getBody();
+        assertEquals(Collections.singletonList("users exceed the capacity of 1"), results.get(0).getErrors());
+        verify(sessionService, never()).saveAll(any());
+    }
+
+    @Test
+    void saveAll_OnlyConflicts() {
+        SessionDto stale = new SessionDto(2L, "Stale", new Date(), 1L, "Description", null, null, 1L, null, null);
+        when(teacherService.findByIds(any())).thenReturn(Collections.singletonMap(1L, new Teacher()));
+        when(sessionService.findVersions(any())).thenReturn(Collections.singletonMap(2L, 4L));
+
+        ResponseEntity<?> response = sessionController.saveAll(Collections.singletonList(stale));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(sessionService, never()).saveAll(any());
+    }
+
+    @Test
+    void saveAll_BadRequest() {
+        assertTrue(sessionController.saveAll(Collections.emptyList()).getStatusCode().is4xxClientError());
+        assertTrue(sessionController.saveAll(Collections.nCopies(1001, sessionDto)).getStatusCode().is4xxClientError());
+        verify(sessionService, never()).saveAll(any());
+    }
+
     @Test
     void update_Success() {
-        when(sessionMapper.toEntity(sessionDto)).thenReturn(session);
+        when(sessionMapper.toEntityWithoutUsers(sessionDto)).thenReturn(session);
         when(sessionService.update(eq(1L), any(Session.class))).thenReturn(session);
         when(sessionMapper.toDto(session)).thenReturn(sessionDto);
 
@@ -116,6 +400,16 @@ public class SessionControllerTest {
         assertEquals(sessionDto, response.getBody());
     }
 
+    @Test
+    void update_UnknownTeacher() {
+        sessionDto.setTeacher_id(99L);
+        when(sessionMapper.toEntityWithoutUsers(sessionDto)).thenReturn(session);
+        when(sessionService.update(eq(1L), any(Session.class))).thenThrow(new BadRequestException("Unknown teacher"));
+
+        assertThrows(BadRequestException.class, () -> sessionController.update("1", sessionDto));
+        verify(sessionMapper, never()).toDto(any(Session.class));
+    }
+
     @Test
     void delete_Success() {
         when(sessionService.getById(1L)).thenReturn(session);
@@ -0,0 +1,103 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+/**
+ * Not transactional: the export is written on an async thread, which only sees committed rows.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class SessionExportIntegrationTest {
+
+    private static final int SESSION_COUNT = 1200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Teacher teacher;
+
+    private User user;
+
+    private final List<Session> sessions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        teacher = teacherRepository.save(Teacher.builder().firstName("Export").lastName("Teacher").build());
+        user = userRepository.save(new User("export@test.com", "Last", "First", "password", false));
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            sessions.add(Session.builder()
+                    .name("Export " + i)
+                    .date(new Date())
+                    .description("Description")
+                    .teacher(teacher)
+                    .users(new ArrayList<>())
+                    .build());
+        }
+        sessionRepository.saveAll(sessions);
+        jdbcTemplate.update("INSERT INTO PARTICIPATE (session_id, user_id) VALUES (?, ?)",
+                sessions.get(SESSION_COUNT - 1).getId(), user.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM PARTICIPATE WHERE user_id = ?", user.getId());
+        sessions.forEach(session -> sessionRepository.deleteById(session.getId()));
+        userRepository.deleteById(user.getId());
+        teacherRepository.deleteById(teacher.getId());
+    }
+
+    @Test
+    @WithMockUser
+    public void testExportSessions_StreamsEveryChunk() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/session/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(SESSION_COUNT)))
+                .andExpect(jsonPath("$[0].name").value("Export 0"))
+                .andExpect(jsonPath("$[0].teacher_id").value(teacher.getId()))
+                .andExpect(jsonPath("$[" + (SESSION_COUNT - 1) + "].users[0]").value(user.getId()));
+    }
+}
@@ -128,6 +128,26 @@ public class TeacherControllerIntegrationTest {
                 .andExpect(jsonPath("$[1].firstName", is("Jane")));
     }
 
+    @Test
+    public void testFindAllTeachers_ConditionalGet() throws Exception {
+        String eTag = mockMvc.perform(get("/api/teacher")
+                .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/teacher")
+                .header("Authorization", "Bearer " + jwtToken)
+                .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        teacherRepository.save(Teacher.builder().firstName("New").lastName("Teacher").build());
+        mockMvc.perform(get("/api/teacher")
+                .header("Authorization", "Bearer " + jwtToken)
+                .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+    }
+
     @Test
     public void testFindTeacherById_Success() throws Exception {
         mockMvc.perform(get("/api/teacher/" + testTeacher1.getId())
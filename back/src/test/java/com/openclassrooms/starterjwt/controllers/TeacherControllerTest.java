@@ -10,14 +10,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import com.openclassrooms.starterjwt.dto.TeacherDto;
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.services.TeacherService;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +38,8 @@ public class TeacherControllerTest {
     private TeacherController teacherController;
     private Teacher teacher;
     private TeacherDto teacherDto;
+    private TeacherRepository.CollectionState collectionState;
+    private ServletWebRequest request;
 
     @BeforeEach
     void setUp() {
@@ -49,6 +58,19 @@ public class TeacherControllerTest {
         teacherDto.setLastName("Doe");
         teacherDto.setCreatedAt(LocalDateTime.now());
         teacherDto.setUpdatedAt(LocalDateTime.now());
+
+        collectionState = new TeacherRepository.CollectionState() {
+            @Override
+            public Long getCount() {
+                return 1L;
+            }
+
+            @Override
+            public LocalDateTime getLastModified() {
+                return teacher.getUpdatedAt();
+            }
+        };
+        request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/teacher"), new MockHttpServletResponse());
     }
 
     @Test
@@ -56,7 +78,7 @@ public class TeacherControllerTest {
         when(teacherService.findById(1L)).thenReturn(teacher);
         when(teacherMapper.toDto(teacher)).thenReturn(teacherDto);
 
-        ResponseEntity<?> response = teacherController.findById("1");
+        ResponseEntity<?> response = teacherController.findById("1", request);
 
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertEquals(teacherDto, response.getBody());
@@ -66,14 +88,14 @@ public class TeacherControllerTest {
     void findById_NotFound() {
         when(teacherService.findById(1L)).thenReturn(null);
 
-        ResponseEntity<?> response = teacherController.findById("1");
+        ResponseEntity<?> response = teacherController.findById("1", request);
 
         assertTrue(response.getStatusCode().is4xxClientError());
     }
 
     @Test
     void findById_BadRequest() {
-        ResponseEntity<?> response = teacherController.findById("invalid");
+        ResponseEntity<?> response = teacherController.findById("invalid", request);
 
         assertTrue(response.getStatusCode().is4xxClientError());
     }
@@ -83,14 +105,42 @@ public class TeacherControllerTest {
         List<Teacher> teachers = Arrays.asList(teacher);
         List<TeacherDto> teacherDtos = Arrays.asList(teacherDto);
 
+        when(teacherService.getCollectionState()).thenReturn(collectionState);
         when(teacherService.findAll()).thenReturn(teachers);
         when(teacherMapper.toDto(teachers)).thenReturn(teacherDtos);
 
-        ResponseEntity<?> response = teacherController.findAll();
+        ResponseEntity<?> response = teacherController.findAll(request);
 
         assertTrue(response.getStatusCode().is2xxSuccessful());
         assertEquals(teacherDtos, response.getBody());
         verify(teacherService).findAll();
         verify(teacherMapper).toDto(teachers);
     }
+
+    @Test
+    void findAll_NotModified() {
+        when(teacherService.getCollectionState()).thenReturn(collectionState);
+        String eTag = teacherController.findAll(request).getHeaders().getETag();
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/api/teacher");
+        conditional.addHeader("If-None-Match", eTag);
+
+        ResponseEntity<?> response = teacherController.findAll(
+                new ServletWebRequest(conditional, new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(teacherService, times(1)).findAll();
+    }
+
+    @Test
+    void findById_NotModifiedSince() {
+        when(teacherService.findById(1L)).thenReturn(teacher);
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/api/teacher/1");
+        conditional.addHeader("If-Modified-Since", System.currentTimeMillis() + 60_000L);
+
+        ResponseEntity<?> response = teacherController.findById("1",
+                new ServletWebRequest(conditional, new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(teacherMapper, never()).toDto(teacher);
+    }
 }
@@ -29,6 +29,15 @@ class BadRequestExceptionTest {
         assertTrue(exception instanceof RuntimeException);
     }
 
+    @Test
+    void shouldKeepMessage() {
+        // Given
+        BadRequestException exception = new BadRequestException("Unknown user ids: [1]");
+
+        // Then
+        assertEquals("Unknown user ids: [1]", exception.getMessage());
+    }
+
     @Test
     void shouldBeAbleToThrowException() {
         // Then
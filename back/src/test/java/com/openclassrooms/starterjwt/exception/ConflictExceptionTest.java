@@ -0,0 +1,38 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictExceptionTest {
+
+    @Test
+    void shouldHaveCorrectHttpStatus() {
+        // Given
+        ResponseStatus responseStatus = ConflictException.class.getAnnotation(ResponseStatus.class);
+
+        // Then
+        assertNotNull(responseStatus);
+        assertEquals(HttpStatus.CONFLICT, responseStatus.value());
+    }
+
+    @Test
+    void shouldCreateExceptionWithoutParameters() {
+        // When
+        ConflictException exception = new ConflictException();
+
+        // Then
+        assertNotNull(exception);
+        assertTrue(exception instanceof RuntimeException);
+    }
+
+    @Test
+    void shouldThrowConflictException() {
+        // Then
+        assertThrows(ConflictException.class, () -> {
+            throw new ConflictException();
+        });
+    }
+}
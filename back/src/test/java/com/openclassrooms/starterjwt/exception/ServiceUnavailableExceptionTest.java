@@ -0,0 +1,38 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceUnavailableExceptionTest {
+
+    @Test
+    void shouldHaveCorrectHttpStatus() {
+        // Given
+        ResponseStatus responseStatus = ServiceUnavailableException.class.getAnnotation(ResponseStatus.class);
+
+        // Then
+        assertNotNull(responseStatus);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseStatus.value());
+    }
+
+    @Test
+    void shouldCreateExceptionWithoutParameters() {
+        // When
+        ServiceUnavailableException exception = new ServiceUnavailableException();
+
+        // Then
+        assertNotNull(exception);
+        assertTrue(exception instanceof RuntimeException);
+    }
+
+    @Test
+    void shouldThrowServiceUnavailableException() {
+        // Then
+        assertThrows(ServiceUnavailableException.class, () -> {
+            throw new ServiceUnavailableException();
+        });
+    }
+}
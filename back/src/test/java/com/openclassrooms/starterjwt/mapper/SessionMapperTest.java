@@ -2,6 +2,8 @@ package com.openclassrooms.starterjwt.mapper;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -83,9 +86,8 @@ public class SessionMapperTest {
     @Test
     void toEntity_ShouldMapDtoToEntity() {
         // Given
-        when(teacherService.findById(1L)).thenReturn(teacher);
-        when(userService.findById(1L)).thenReturn(user1);
-        when(userService.findById(2L)).thenReturn(user2);
+        when(teacherService.getReference(1L)).thenReturn(teacher);
+        when(userService.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(user1, user2));
 
         // When
         Session result = sessionMapper.toEntity(sessionDto);
@@ -101,6 +103,22 @@ public class SessionMapperTest {
         assertTrue(result.getUsers().contains(user2));
     }
 
+    @Test
+    void toEntityWithoutUsers_ShouldNotResolveUsers() {
+        // Given
+        when(teacherService.getReference(1L)).thenReturn(teacher);
+
+        // When
+        Session result = sessionMapper.toEntityWithoutUsers(sessionDto);
+
+        // Then
+        assertNotNull(result);
+        assertEquals(sessionDto.getName(), result.getName());
+        assertEquals(teacher, result.getTeacher());
+        assertNull(result.getUsers());
+        verifyNoInteractions(userService);
+    }
+
     @Test
     void toDto_ShouldMapEntityToDto() {
         // When
@@ -117,6 +135,36 @@ public class SessionMapperTest {
         assertTrue(result.getUsers().contains(2L));
     }
 
+    @Test
+    void toDto_WithParticipantIds_ShouldNotReadUsers() {
+        // Given
+        session.setUsers(null);
+
+        // When
+        SessionDto result = sessionMapper.toDto(session, Arrays.asList(3L, 4L));
+
+        // Then
+        assertNotNull(result);
+        assertEquals(session.getId(), result.getId());
+        assertEquals(session.getTeacher().getId(), result.getTeacher_id());
+        assertEquals(Arrays.asList(3L, 4L), result.getUsers());
+    }
+
+    @Test
+    void toDtoList_WithParticipantIds_ShouldDefaultToNoUsers() {
+        // Given
+        Session other = Session.builder().id(2L).name("Other").build();
+
+        // When
+        List<SessionDto> result = sessionMapper.toDto(Arrays.asList(session, other),
+                Collections.singletonMap(session.getId(), Arrays.asList(1L, 2L)));
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(Arrays.asList(1L, 2L), result.get(0).getUsers());
+        assertTrue(result.get(1).getUsers().isEmpty());
+    }
+
     @Test
     void toEntity_WithNullTeacherAndUsers_ShouldMapCorrectly() {
         // Given
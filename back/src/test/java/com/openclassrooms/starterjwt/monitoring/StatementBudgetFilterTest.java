@@ -0,0 +1,68 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class StatementBudgetFilterTest {
+
+    private StatementCounter statementCounter;
+    private MeterRegistry meterRegistry;
+    private StatementBudgetFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        statementCounter = new StatementCounter();
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new StatementBudgetFilter(statementCounter, meterRegistry, 3);
+    }
+
+    @Test
+    void recordsStatementsPerEndpoint() throws Exception {
+        perform(2);
+        perform(3);
+
+        DistributionSummary summary = meterRegistry.get("http.server.requests.statements")
+                .tag("method", "GET").tag("uri", "/api/session").summary();
+        assertEquals(2, summary.count());
+        assertEquals(5, summary.totalAmount());
+        assertNull(meterRegistry.find("http.server.requests.statements.over.budget").counter());
+    }
+
+    @Test
+    void countsRequestsOverTheBudget() throws Exception {
+        perform(4);
+
+        Counter overBudget = meterRegistry.get("http.server.requests.statements.over.budget")
+                .tag("uri", "/api/session").counter();
+        assertEquals(1, overBudget.count());
+    }
+
+    @Test
+    void tagsUnmappedRequestsAsUnknown() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/missing");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> statementCounter.inspect("select 1"));
+
+        assertEquals(1, meterRegistry.get("http.server.requests.statements").tag("uri", "UNKNOWN").summary().count());
+    }
+
+    private void perform(int statements) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/session");
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/session");
+            for (int i = 0; i < statements; i++) {
+                statementCounter.inspect("select " + i);
+            }
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package com.openclassrooms.starterjwt.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+public class StatementCounterTest {
+
+    private final StatementCounter statementCounter = new StatementCounter();
+
+    @Test
+    void countsStatementsBetweenStartAndStop() {
+        statementCounter.start();
+        statementCounter.inspect("select 1");
+        statementCounter.inspect("select 2");
+
+        assertEquals(2, statementCounter.stop());
+    }
+
+    @Test
+    void ignoresStatementsOutsideAWindow() {
+        statementCounter.inspect("select 1");
+
+        assertEquals(0, statementCounter.stop());
+    }
+
+    @Test
+    void leavesStatementsUnchanged() {
+        assertEquals("select 1", statementCounter.inspect("select 1"));
+    }
+
+    @Test
+    void countsPerThread() throws Exception {
+        statementCounter.start();
+        Thread other = new Thread(() -> {
+            statementCounter.start();
+            statementCounter.inspect("select 1");
+            statementCounter.inspect("select 2");
+            statementCounter.stop();
+        });
+        other.start();
+        other.join();
+        statementCounter.inspect("select 3");
+
+        assertEquals(1, statementCounter.stop());
+    }
+}
@@ -0,0 +1,139 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.flywaydb.core.Flyway;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.PhysicalNamingStrategyStandardImpl;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.tool.hbm2ddl.SchemaValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+
+public class SchemaMigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:migration;DB_CLOSE_DELAY=-1;MODE=MySQL;"
+            + "DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection(URL, "sa", "");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    private Flyway flyway() {
+        return Flyway.configure().dataSource(URL, "sa", "").load();
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    @Test
+    void migrate_ShouldCreateSchemaWithSeedData() throws SQLException {
+        flyway().migrate();
+
+        assertEquals(1, count("SELECT COUNT(*) FROM USERS WHERE email = 'yoga@studio.com'"));
+        assertEquals(2, count("SELECT COUNT(*) FROM TEACHERS"));
+        assertEquals(2, count("SELECT next_val FROM hibernate_sequences WHERE sequence_name = 'USERS'"));
+        assertEquals(1, count("SELECT next_val FROM hibernate_sequences WHERE sequence_name = 'SESSIONS'"));
+    }
+
+    @Test
+    void migrate_ShouldRejectDuplicateParticipations() throws SQLException {
+        flyway().migrate();
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO SESSIONS (name, description, date) VALUES ('Yoga', 'Description', NOW())");
+            statement.execute("INSERT INTO PARTICIPATE (session_id, user_id) SELECT s.id, u.id FROM SESSIONS s, USERS u");
+
+            assertThrows(SQLException.class, () ->
+                    statement.execute("INSERT INTO PARTICIPATE (session_id, user_id) SELECT s.id, u.id FROM SESSIONS s, USERS u"));
+        }
+    }
+
+    @Test
+    void migrate_ShouldDeduplicateExistingParticipations() throws SQLException {
+        Flyway flyway = Flyway.configure().dataSource(URL, "sa", "").target("1").load();
+        flyway.migrate();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO SESSIONS (name, description, date) VALUES ('Yoga', 'Description', NOW())");
+            statement.execute("INSERT INTO PARTICIPATE (session_id, user_id) SELECT s.id, u.id FROM SESSIONS s, USERS u");
+            statement.execute("INSERT INTO PARTICIPATE (session_id, user_id) SELECT s.id, u.id FROM SESSIONS s, USERS u");
+        }
+
+        flyway().migrate();
+
+        assertEquals(1, count("SELECT COUNT(*) FROM PARTICIPATE"));
+        assertTrue(count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'idx_participate_user_session'") > 0);
+    }
+
+    @Test
+    void migrate_ShouldRejectDuplicateEmails() throws SQLException {
+        flyway().migrate();
+
+        try (Statement statement = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> statement.execute(
+                    "INSERT INTO USERS (first_name, last_name, admin, email, password) "
+                            + "VALUES ('Other', 'Admin', false, 'yoga@studio.com', 'password')"));
+        }
+    }
+
+    /**
+     * The application never generates its schema, so the entity mappings are checked against the migrated one.
+     * Identifiers are left unquoted, as in the migrations, so the case-insensitive URL resolves them the same way.
+     */
+    @Test
+    void migrate_ShouldMatchEntityMappings() {
+        flyway().migrate();
+
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.URL, URL)
+                .applySetting(AvailableSettings.USER, "sa")
+                .applySetting(AvailableSettings.PASS, "")
+                .applySetting(AvailableSettings.DIALECT, H2Dialect.class.getName())
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, PhysicalNamingStrategyStandardImpl.class.getName())
+                .applySetting(AvailableSettings.USE_SECOND_LEVEL_CACHE, false)
+                .build();
+        try {
+            Metadata metadata = new MetadataSources(registry)
+                    .addAnnotatedClass(Session.class)
+                    .addAnnotatedClass(Teacher.class)
+                    .addAnnotatedClass(User.class)
+                    .buildMetadata();
+
+            assertDoesNotThrow(() -> new SchemaValidator().validate(metadata, registry));
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+}
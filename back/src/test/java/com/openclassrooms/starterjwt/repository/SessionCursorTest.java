@@ -0,0 +1,28 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.starterjwt.models.Session;
+
+class SessionCursorTest {
+
+    @Test
+    void encode_ShouldRoundTrip() {
+        Session session = Session.builder().id(42L).date(new Date(1_700_000_000_123L)).build();
+
+        SessionCursor cursor = SessionCursor.decode(SessionCursor.of(session).encode());
+
+        assertEquals(new Date(1_700_000_000_123L), cursor.getDate());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void decode_ShouldRejectForeignTokens() {
+        assertThrows(IllegalArgumentException.class, () -> SessionCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> SessionCursor.decode("!!"));
+    }
+}
@@ -0,0 +1,187 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+public class SessionRepositoryTest {
+
+    private static final int SESSION_COUNT = 1000;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAllWithTeacherAndParticipants_ShouldUseConstantNumberOfStatements() {
+        // Given
+        List<Teacher> teachers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            teachers.add(teacherRepository.save(Teacher.builder().firstName("First" + i).lastName("Last" + i).build()));
+        }
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add(userRepository.save(new User("user" + i + "@test.com", "Last", "First", "password", false)));
+        }
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            sessionRepository.save(Session.builder()
+                    .name("Session " + i)
+                    .date(new Date())
+                    .description("Description " + i)
+                    .teacher(teachers.get(i % teachers.size()))
+                    .users(new ArrayList<>(Arrays.asList(users.get(i % users.size()), users.get((i + 1) % users.size()))))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        // When
+        List<Session> sessions = sessionRepository.findAllWithTeacher();
+        sessions.forEach(session -> assertNotNull(session.getTeacher().getLastName()));
+        List<SessionRepository.Participant> participants = sessionRepository.findParticipants(
+                sessions.stream().map(Session::getId).collect(Collectors.toList()));
+
+        // Then
+        assertEquals(SESSION_COUNT, sessions.size());
+        assertEquals(2L * SESSION_COUNT, participants.size());
+        assertTrue(participants.stream().allMatch(participant -> participant.getUserId() != null));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(SESSION_COUNT + teachers.size(), statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void addAndRemoveParticipant_ShouldWriteSingleJoinTableRow() {
+        // Given
+        Session session = sessionRepository.save(Session.builder()
+                .name("Session")
+                .date(new Date())
+                .description("Description")
+                .users(new ArrayList<>())
+                .build());
+        User user = userRepository.save(new User("participant@test.com", "Last", "First", "password", false));
+        entityManager.flush();
+        statistics.clear();
+
+        // When / Then
+        assertEquals(1, sessionRepository.addParticipant(session.getId(), user.getId()));
+        assertEquals(0, sessionRepository.addParticipant(session.getId(), user.getId()));
+        assertEquals(0, sessionRepository.addParticipant(session.getId(), user.getId() + 1));
+        assertEquals(1, sessionRepository.findParticipants(Collections.singletonList(session.getId())).size());
+
+        assertEquals(1, sessionRepository.removeParticipant(session.getId(), user.getId()));
+        assertEquals(0, sessionRepository.removeParticipant(session.getId(), user.getId()));
+        assertTrue(sessionRepository.findParticipants(Collections.singletonList(session.getId())).isEmpty());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findPage_ShouldWalkKeysetInBothDirections() {
+        // Given
+        long base = 1_700_000_000_000L;
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Several sessions share a date so the id breaks ties
+            sessions.add(sessionRepository.save(Session.builder()
+                    .name("Session " + i)
+                    .date(new Date(base + (i / 3) * 60_000L))
+                    .description("Description")
+                    .users(new ArrayList<>())
+                    .build()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> expected = sessions.stream().map(Session::getId).collect(Collectors.toList());
+
+        // When
+        List<Long> ascending = walk(SessionFilter.builder().build());
+        List<Long> descending = walk(SessionFilter.builder().descending(true).build());
+
+        // Then
+        assertEquals(expected, ascending);
+        Collections.reverse(expected);
+        assertEquals(expected, descending);
+    }
+
+    @Test
+    void findPage_ShouldApplyFilters() {
+        // Given
+        Teacher teacher = teacherRepository.save(Teacher.builder().firstName("First").lastName("Last").build());
+        User user = userRepository.save(new User("filter@test.com", "Last", "First", "password", false));
+        Date date = new Date(1_700_000_000_000L);
+        Session full = sessionRepository.save(Session.builder().name("Full").date(date).description("Description")
+                .teacher(teacher).capacity(1).users(new ArrayList<>(Collections.singletonList(user))).build());
+        Session open = sessionRepository.save(Session.builder().name("Open").date(date).description("Description")
+                .teacher(teacher).capacity(2).users(new ArrayList<>(Collections.singletonList(user))).build());
+        Session unlimited = sessionRepository.save(Session.builder().name("Unlimited").date(new Date(date.getTime() + 60_000L))
+                .description("Description").users(new ArrayList<>()).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // When / Then
+        assertEquals(Arrays.asList(full.getId(), open.getId()),
+                ids(sessionRepository.findPage(SessionFilter.builder().teacherId(teacher.getId()).build(), 10)));
+        assertEquals(Arrays.asList(open.getId(), unlimited.getId()),
+                ids(sessionRepository.findPage(SessionFilter.builder().hasFreeSeats(true).build(), 10)));
+        assertEquals(Collections.singletonList(full.getId()),
+                ids(sessionRepository.findPage(SessionFilter.builder().hasFreeSeats(false).build(), 10)));
+        assertEquals(Collections.singletonList(unlimited.getId()),
+                ids(sessionRepository.findPage(SessionFilter.builder().from(new Date(date.getTime() + 1)).build(), 10)));
+        assertEquals(Arrays.asList(full.getId(), open.getId()),
+                ids(sessionRepository.findPage(SessionFilter.builder().to(new Date(date.getTime() + 1)).build(), 10)));
+    }
+
+    private List<Long> walk(SessionFilter filter) {
+        List<Long> ids = new ArrayList<>();
+        List<Session> page = sessionRepository.findPage(filter, 2);
+        while (!page.isEmpty()) {
+            ids.addAll(ids(page));
+            filter.setAfter(SessionCursor.of(page.get(page.size() - 1)));
+            page = sessionRepository.findPage(filter, 2);
+        }
+        return ids;
+    }
+
+    private static List<Long> ids(List<Session> sessions) {
+        return sessions.stream().map(Session::getId).collect(Collectors.toList());
+    }
+}
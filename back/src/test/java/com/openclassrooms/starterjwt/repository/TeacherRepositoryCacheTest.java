@@ -0,0 +1,99 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.services.TeacherService;
+
+/**
+ * Not transactional: the second-level cache is only populated from committed data.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class TeacherRepositoryCacheTest {
+
+    @Autowired
+    private TeacherService teacherService;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private SessionFactory sessionFactory;
+
+    private Statistics statistics;
+
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        statistics = sessionFactory.getStatistics();
+        teacher = teacherRepository.save(Teacher.builder().firstName("Cached").lastName("Teacher").build());
+        sessionFactory.getCache().evictAllRegions();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        teacherRepository.deleteById(teacher.getId());
+    }
+
+    @Test
+    void findById_SecondReadIsServedFromCache() {
+        assertEquals("Cached", teacherService.findById(teacher.getId()).getFirstName());
+        assertEquals("Cached", teacherService.findById(teacher.getId()).getFirstName());
+
+        assertEquals(1, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getSecondLevelCachePutCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("teachers").getHitCount());
+        assertEquals(1.0, meterRegistry.get("hibernate.second.level.cache.requests")
+                .tags("region", "teachers", "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void findAll_SecondListingIsServedFromQueryCache() {
+        List<Teacher> first = teacherService.findAll();
+        List<Teacher> second = teacherService.findAll();
+
+        assertEquals(first, second);
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(first.size(), statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findByIds_ListingIsInvalidatedByWrites() {
+        List<Long> ids = Arrays.asList(teacher.getId());
+        teacherService.findByIds(ids);
+        teacherService.findByIds(ids);
+        assertEquals(1, statistics.getQueryExecutionCount());
+
+        teacherRepository.save(teacher.setLastName("Renamed"));
+        assertEquals("Renamed", teacherService.findByIds(ids).get(teacher.getId()).getLastName());
+
+        assertEquals(2, statistics.getQueryExecutionCount());
+        assertTrue(statistics.getQueryCachePutCount() >= 2);
+    }
+}
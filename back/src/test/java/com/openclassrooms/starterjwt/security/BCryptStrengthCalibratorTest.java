@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class BCryptStrengthCalibratorTest {
+
+    @Test
+    void calibrate_WithTinyTarget_ShouldReturnMinimum() {
+        assertEquals(4, BCryptStrengthCalibrator.calibrate(0, 4, 6));
+    }
+
+    @Test
+    void calibrate_WithHugeTarget_ShouldReturnMaximum() {
+        assertEquals(6, BCryptStrengthCalibrator.calibrate(Long.MAX_VALUE / 4, 4, 6));
+    }
+
+    @Test
+    void calibrate_ShouldStayWithinRange() {
+        int strength = BCryptStrengthCalibrator.calibrate(20, 4, 8);
+
+        assertTrue(strength >= 4 && strength <= 8);
+    }
+
+    @Test
+    void calibrate_WithInvalidRange_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> BCryptStrengthCalibrator.calibrate(100, 8, 4));
+        assertThrows(IllegalArgumentException.class, () -> BCryptStrengthCalibrator.calibrate(100, 3, 4));
+    }
+}
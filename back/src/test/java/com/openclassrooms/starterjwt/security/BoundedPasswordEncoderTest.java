@@ -0,0 +1,50 @@
+package com.openclassrooms.starterjwt.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BoundedPasswordEncoderTest {
+
+    private MeterRegistry meterRegistry;
+
+    private PasswordHashingExecutor hashingExecutor;
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hashingExecutor = new PasswordHashingExecutor(1, 1, 5000, meterRegistry);
+        passwordEncoder = new BoundedPasswordEncoder(new CalibratedBCryptPasswordEncoder(4), hashingExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_ShouldRunOnHashingExecutor() {
+        String hash = passwordEncoder.encode("password");
+
+        assertTrue(passwordEncoder.matches("password", hash));
+        assertFalse(passwordEncoder.matches("wrong", hash));
+        assertEquals(3, meterRegistry.get("password.hashing").timer().count());
+    }
+
+    @Test
+    void upgradeEncoding_ShouldDelegate() {
+        String hash = new BCryptPasswordEncoder(4).encode("password");
+        BoundedPasswordEncoder stronger = new BoundedPasswordEncoder(new CalibratedBCryptPasswordEncoder(5), hashingExecutor);
+
+        assertTrue(stronger.upgradeEncoding(hash));
+    }
+}
@@ -0,0 +1,64 @@
+package com.openclassrooms.starterjwt.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class CalibratedBCryptPasswordEncoderTest {
+
+    @Test
+    void encode_ShouldUseConfiguredStrength() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+        String hash = encoder.encode("password");
+
+        assertEquals(5, CalibratedBCryptPasswordEncoder.strengthOf(hash));
+        assertTrue(encoder.matches("password", hash));
+    }
+
+    @Test
+    void upgradeEncoding_WithLowerStoredStrength_ShouldReturnTrue() {
+        String hash = new BCryptPasswordEncoder(4).encode("password");
+
+        assertTrue(new CalibratedBCryptPasswordEncoder(5).upgradeEncoding(hash));
+    }
+
+    @Test
+    void upgradeEncoding_WithHigherStoredStrength_ShouldReturnFalse() {
+        String hash = new BCryptPasswordEncoder(6).encode("password");
+
+        assertFalse(new CalibratedBCryptPasswordEncoder(5).upgradeEncoding(hash));
+    }
+
+    @Test
+    void upgradeEncoding_WithStoredStrengthAboveFloor_ShouldReturnFalse() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(6, 4);
+
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password")));
+    }
+
+    @Test
+    void upgradeEncoding_WithStoredStrengthBelowFloor_ShouldReturnTrue() {
+        String hash = new BCryptPasswordEncoder(4).encode("password");
+
+        assertTrue(new CalibratedBCryptPasswordEncoder(6, 5).upgradeEncoding(hash));
+    }
+
+    @Test
+    void upgradeEncoding_WithSameStrength_ShouldReturnFalse() {
+        String hash = new BCryptPasswordEncoder(5).encode("password");
+
+        assertFalse(new CalibratedBCryptPasswordEncoder(5).upgradeEncoding(hash));
+    }
+
+    @Test
+    void upgradeEncoding_WithUnknownFormat_ShouldReturnFalse() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+}
@@ -0,0 +1,106 @@
+package com.openclassrooms.starterjwt.security;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordHashingExecutorTest {
+
+    private MeterRegistry meterRegistry;
+
+    private PasswordHashingExecutor hashingExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hashingExecutor = new PasswordHashingExecutor(1, 1, 2000, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void execute_ShouldReturnTaskResult() {
+        assertEquals("hash", hashingExecutor.execute(() -> "hash"));
+        assertEquals(1, meterRegistry.get("password.hashing").timer().count());
+    }
+
+    @Test
+    void execute_ShouldRethrowTaskException() {
+        assertThrows(BadCredentialsException.class, () -> hashingExecutor.execute(() -> {
+            throw new BadCredentialsException("Bad credentials");
+        }));
+    }
+
+    @Test
+    void execute_WhenSaturated_ShouldRejectImmediately() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        try {
+            // One task occupies the only thread, a second one fills the queue
+            callers.submit(() -> hashingExecutor.execute(() -> {
+                running.countDown();
+                await(release);
+                return "first";
+            }));
+            assertTrue(running.await(2, TimeUnit.SECONDS));
+            callers.submit(() -> hashingExecutor.execute(() -> "second"));
+            waitForQueuedTask();
+
+            assertThrows(ServiceUnavailableException.class, () -> hashingExecutor.execute(() -> "third"));
+            assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+
+    @Test
+    void execute_WhenTaskTooSlow_ShouldTimeOut() {
+        PasswordHashingExecutor slowExecutor = new PasswordHashingExecutor(1, 1, 50, new SimpleMeterRegistry());
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            assertThrows(ServiceUnavailableException.class, () -> slowExecutor.execute(() -> {
+                await(release);
+                return "late";
+            }));
+        } finally {
+            release.countDown();
+            slowExecutor.shutdown();
+        }
+    }
+
+    private void waitForQueuedTask() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (hashingExecutor.getQueueSize() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,23 +1,37 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import java.time.Instant;
+
 import javax.servlet.FilterChain;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 public class AuthTokenFilterTest {
 
@@ -30,6 +44,12 @@ public class AuthTokenFilterTest {
     @Mock
     private UserDetailsServiceImpl userDetailsService;
 
+    @Mock
+    private JwtRevocationService revocationService;
+
+    @Spy
+    private VerifiedTokenCache tokenCache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+
     @Mock
     private HttpServletRequest request;
 
@@ -44,7 +64,12 @@ public class AuthTokenFilterTest {
 
     @BeforeEach
     void setUp() {
-       
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -55,8 +80,7 @@ public class AuthTokenFilterTest {
         String username = "testuser";
 
         when(request.getHeader("Authorization")).thenReturn(bearerToken);
-        when(jwtUtils.validateJwtToken(token)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(token)).thenReturn(username);
+        when(jwtUtils.parseJwtToken(token)).thenReturn(claims(username));
         when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
 
         // When
@@ -67,6 +91,28 @@ public class AuthTokenFilterTest {
         verify(userDetailsService).loadUserByUsername(username);
     }
 
+    @Test
+    void doFilterInternal_WithCachedToken_ShouldNotParseTokenAgain() throws Exception {
+        // Given
+        String token = "valid.jwt.token";
+        String bearerToken = "Bearer " + token;
+        String username = "testuser";
+
+        when(request.getHeader("Authorization")).thenReturn(bearerToken);
+        when(jwtUtils.parseJwtToken(token)).thenReturn(claims(username));
+        when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
+
+        // When
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(jwtUtils, times(1)).parseJwtToken(token);
+        verify(userDetailsService, times(2)).loadUserByUsername(username);
+        assertEquals(1, tokenCache.getHitCount());
+        assertEquals(1, tokenCache.getMissCount());
+    }
+
     @Test
     void doFilterInternal_WithInvalidToken_ShouldContinueChain() throws Exception {
         // Given
@@ -74,7 +120,7 @@ public class AuthTokenFilterTest {
         String bearerToken = "Bearer " + token;
 
         when(request.getHeader("Authorization")).thenReturn(bearerToken);
-        when(jwtUtils.validateJwtToken(token)).thenReturn(false);
+        when(jwtUtils.parseJwtToken(token)).thenReturn(null);
 
         // When
         authTokenFilter.doFilterInternal(request, response, filterChain);
@@ -94,7 +140,7 @@ public class AuthTokenFilterTest {
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtils, never()).validateJwtToken(anyString());
+        verify(jwtUtils, never()).parseJwtToken(anyString());
     }
 
     @Test
@@ -107,7 +153,7 @@ public class AuthTokenFilterTest {
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtils, never()).validateJwtToken(anyString());
+        verify(jwtUtils, never()).parseJwtToken(anyString());
     }
 
     @Test
@@ -117,7 +163,7 @@ public class AuthTokenFilterTest {
         String bearerToken = "Bearer " + token;
 
         when(request.getHeader("Authorization")).thenReturn(bearerToken);
-        when(jwtUtils.validateJwtToken(token)).thenThrow(new RuntimeException("Token validation failed"));
+        when(jwtUtils.parseJwtToken(token)).thenThrow(new RuntimeException("Token validation failed"));
 
         // When
         authTokenFilter.doFilterInternal(request, response, filterChain);
@@ -125,4 +171,82 @@ public class AuthTokenFilterTest {
         // Then
         verify(filterChain).doFilter(request, response);
     }
+
+    @Test
+    void doFilterInternal_InStatelessMode_ShouldBuildPrincipalFromClaims() throws Exception {
+        // Given
+        String token = "valid.jwt.token";
+        ReflectionTestUtils.setField(authTokenFilter, "statelessAuth", true);
+        JwtClaims claims = JwtClaims.builder()
+            .subject("testuser")
+            .userId(7L)
+            .firstName("John")
+            .lastName("Doe")
+            .admin(true)
+            .expiration(Instant.now().plusSeconds(60))
+            .build();
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtils.parseJwtToken(token)).thenReturn(claims);
+
+        // When
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl principal = (UserDetailsImpl) authentication.getPrincipal();
+        assertEquals(7L, principal.getId());
+        assertEquals("testuser", principal.getUsername());
+        assertEquals("John", principal.getFirstName());
+        assertEquals("Doe", principal.getLastName());
+        assertTrue(principal.getAdmin());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_InStatelessModeWithoutProfileClaims_ShouldLoadUser() throws Exception {
+        // Given
+        String token = "valid.jwt.token";
+        String username = "testuser";
+        ReflectionTestUtils.setField(authTokenFilter, "statelessAuth", true);
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtils.parseJwtToken(token)).thenReturn(claims(username));
+        when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
+
+        // When
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(userDetailsService).loadUserByUsername(username);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_WithRevokedToken_ShouldNotAuthenticate() throws Exception {
+        // Given
+        String token = "valid.jwt.token";
+        JwtClaims claims = claims("testuser");
+        ReflectionTestUtils.setField(authTokenFilter, "revocationCheck", true);
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtils.parseJwtToken(token)).thenReturn(claims);
+        when(revocationService.isRevoked(claims)).thenReturn(true);
+
+        // When
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    private JwtClaims claims(String username) {
+        return JwtClaims.builder()
+            .subject(username)
+            .expiration(Instant.now().plusSeconds(60))
+            .build();
+    }
 }
@@ -0,0 +1,61 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class JwtRevocationServiceTest {
+
+    private JwtRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new JwtRevocationService(86400000);
+    }
+
+    @Test
+    void isRevoked_WithoutRevocation_ShouldReturnFalse() {
+        assertFalse(revocationService.isRevoked(claims(1L, Instant.now().minusSeconds(10))));
+    }
+
+    @Test
+    void isRevoked_WithTokenIssuedBeforeRevocation_ShouldReturnTrue() {
+        JwtClaims claims = claims(1L, Instant.now().minusSeconds(10));
+
+        revocationService.revokeAll(1L);
+
+        assertTrue(revocationService.isRevoked(claims));
+    }
+
+    @Test
+    void isRevoked_WithTokenIssuedAfterRevocation_ShouldReturnFalse() {
+        revocationService.revokeAll(1L);
+
+        assertFalse(revocationService.isRevoked(claims(1L, Instant.now().plusSeconds(2))));
+    }
+
+    @Test
+    void isRevoked_WithoutUserIdClaim_ShouldReturnFalse() {
+        revocationService.revokeAll(1L);
+
+        assertFalse(revocationService.isRevoked(JwtClaims.builder().subject("user1@test.com").build()));
+    }
+
+    @Test
+    void isRevoked_WithOtherUser_ShouldReturnFalse() {
+        revocationService.revokeAll(1L);
+
+        assertFalse(revocationService.isRevoked(claims(2L, Instant.now().minusSeconds(10))));
+    }
+
+    private JwtClaims claims(Long userId, Instant issuedAt) {
+        return JwtClaims.builder()
+            .subject("user" + userId + "@test.com")
+            .userId(userId)
+            .issuedAt(issuedAt)
+            .build();
+    }
+}
@@ -3,6 +3,7 @@ package com.openclassrooms.starterjwt.security.jwt;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,9 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
 @ExtendWith(MockitoExtension.class)
 public class JwtUtilsTest {
 
@@ -29,6 +33,7 @@ public class JwtUtilsTest {
     void setUp() {
         ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "yourTestSecretKey");
         ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        jwtUtils.init();
     }
 
     @Test
@@ -94,4 +99,66 @@ public class JwtUtilsTest {
         // Act & Assert
         assertFalse(jwtUtils.validateJwtToken(null));
     }
+
+    @Test
+    void parseJwtToken_WithValidToken_ShouldReturnClaims() {
+        // Arrange
+        UserDetailsImpl userPrincipal = UserDetailsImpl.builder()
+            .id(42L)
+            .username("testuser")
+            .firstName("John")
+            .lastName("Doe")
+            .admin(true)
+            .build();
+        when(authentication.getPrincipal()).thenReturn(userPrincipal);
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        // Act
+        JwtClaims claims = jwtUtils.parseJwtToken(token);
+
+        // Assert
+        assertNotNull(claims);
+        assertEquals("testuser", claims.getSubject());
+        assertEquals(42L, claims.getUserId());
+        assertEquals("John", claims.getFirstName());
+        assertEquals("Doe", claims.getLastName());
+        assertTrue(claims.getAdmin());
+        assertNotNull(claims.getIssuedAt());
+        assertTrue(claims.getExpiration().isAfter(claims.getIssuedAt()));
+    }
+
+    @Test
+    void parseJwtToken_WithLegacyStringKeyToken_ShouldReturnClaims() {
+        // Arrange
+        String token = Jwts.builder()
+            .setSubject("testuser")
+            .signWith(SignatureAlgorithm.HS512, "yourTestSecretKey")
+            .compact();
+
+        // Act
+        JwtClaims claims = jwtUtils.parseJwtToken(token);
+
+        // Assert
+        assertNotNull(claims);
+        assertEquals("testuser", claims.getSubject());
+        assertNull(claims.getUserId());
+    }
+
+    @Test
+    void parseJwtToken_WithForeignSignature_ShouldReturnNull() {
+        // Arrange
+        String token = Jwts.builder()
+            .setSubject("testuser")
+            .signWith(SignatureAlgorithm.HS512, "anotherSecretKey")
+            .compact();
+
+        // Act & Assert
+        assertNull(jwtUtils.parseJwtToken(token));
+    }
+
+    @Test
+    void parseJwtToken_WithInvalidToken_ShouldReturnNull() {
+        // Act & Assert
+        assertNull(jwtUtils.parseJwtToken("invalidToken"));
+    }
 }
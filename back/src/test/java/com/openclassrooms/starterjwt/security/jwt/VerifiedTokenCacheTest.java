@@ -0,0 +1,84 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class VerifiedTokenCacheTest {
+
+    private MeterRegistry meterRegistry;
+
+    private VerifiedTokenCache tokenCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenCache = new VerifiedTokenCache(2, meterRegistry);
+    }
+
+    @Test
+    void get_WithUnknownToken_ShouldCountMiss() {
+        assertNull(tokenCache.get("unknown"));
+        assertEquals(0, tokenCache.getHitCount());
+        assertEquals(1, tokenCache.getMissCount());
+    }
+
+    @Test
+    void get_WithCachedToken_ShouldReturnClaimsAndCountHit() {
+        JwtClaims claims = claims("user", 60000);
+        tokenCache.put("token", claims);
+
+        assertEquals(claims, tokenCache.get("token"));
+        assertEquals(1, tokenCache.getHitCount());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwtTokens").tag("result", "hit")
+            .functionCounter().count());
+    }
+
+    @Test
+    void get_WithExpiredToken_ShouldEvictEntry() {
+        tokenCache.put("token", claims("user", -1000));
+
+        assertNull(tokenCache.get("token"));
+        assertEquals(0, tokenCache.size());
+    }
+
+    @Test
+    void get_AfterTokenExpires_ShouldMiss() throws InterruptedException {
+        tokenCache.put("token", claims("user", 50));
+        assertNotNull(tokenCache.get("token"));
+
+        Thread.sleep(100);
+
+        assertNull(tokenCache.get("token"));
+    }
+
+    @Test
+    void put_WithoutExpiration_ShouldNotCache() {
+        tokenCache.put("token", JwtClaims.builder().subject("user").build());
+
+        assertEquals(0, tokenCache.size());
+    }
+
+    @Test
+    void put_WhenFull_ShouldStayBounded() {
+        tokenCache.put("token1", claims("user1", 60000));
+        tokenCache.put("token2", claims("user2", 60000));
+        tokenCache.put("token3", claims("user3", 60000));
+
+        assertEquals(2, tokenCache.size());
+    }
+
+    private JwtClaims claims(String username, long ttlMs) {
+        return JwtClaims.builder()
+            .subject(username)
+            .expiration(Instant.now().plusMillis(ttlMs))
+            .build();
+    }
+}
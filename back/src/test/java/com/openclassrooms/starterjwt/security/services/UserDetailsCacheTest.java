@@ -0,0 +1,63 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class UserDetailsCacheTest {
+
+    @Test
+    void get_WhenEnabled_ShouldLoadOnce() {
+        UserDetailsCache cache = new UserDetailsCache(true, 10, 60, new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("test@test.com", email -> load(email, loads));
+        cache.get("test@test.com", email -> load(email, loads));
+
+        assertEquals(1, loads.get());
+        assertEquals(0.5, cache.stats().hitRate());
+    }
+
+    @Test
+    void get_WhenDisabled_ShouldAlwaysLoad() {
+        UserDetailsCache cache = new UserDetailsCache(false, 10, 60, new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("test@test.com", email -> load(email, loads));
+        cache.get("test@test.com", email -> load(email, loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldForceReload() {
+        UserDetailsCache cache = new UserDetailsCache(true, 10, 60, new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("test@test.com", email -> load(email, loads));
+        cache.invalidate("test@test.com");
+        cache.get("test@test.com", email -> load(email, loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void constructor_ShouldRegisterCacheMetrics() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UserDetailsCache cache = new UserDetailsCache(true, 10, 60, meterRegistry);
+
+        cache.get("test@test.com", email -> load(email, new AtomicInteger()));
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "userDetails").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    private UserDetailsImpl load(String email, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return UserDetailsImpl.builder().id(1L).username(email).build();
+    }
+}
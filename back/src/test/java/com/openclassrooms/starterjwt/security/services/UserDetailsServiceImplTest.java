@@ -4,11 +4,13 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
 import org.mockito.Mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -16,21 +18,30 @@ import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 public class UserDetailsServiceImplTest {
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserDetailsCache userDetailsCache;
+
     private UserDetailsServiceImpl userDetailsService;
 
     @BeforeEach
     void setUp() {
-        userDetailsService = new UserDetailsServiceImpl(userRepository);
+        userDetailsCache = new UserDetailsCache(true, 100, 60, new SimpleMeterRegistry());
+        userDetailsService = new UserDetailsServiceImpl(userRepository, userDetailsCache, transactionManager);
     }
 
     @Test
@@ -43,6 +54,7 @@ public class UserDetailsServiceImplTest {
         user.setPassword("password123");
         user.setFirstName("John");
         user.setLastName("Doe");
+        user.setAdmin(true);
 
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
 
@@ -58,6 +70,7 @@ public class UserDetailsServiceImplTest {
         assertEquals(user.getId(), userDetailsImpl.getId());
         assertEquals(user.getFirstName(), userDetailsImpl.getFirstName());
         assertEquals(user.getLastName(), userDetailsImpl.getLastName());
+        assertTrue(userDetailsImpl.getAdmin());
         
         verify(userRepository, times(1)).findByEmail(email);
     }
@@ -79,4 +92,73 @@ public class UserDetailsServiceImplTest {
         assertTrue(actualMessage.contains(expectedMessage));
         verify(userRepository, times(1)).findByEmail(email);
     }
+
+    @Test
+    void loadUserByUsername_WhenCalledTwice_QueriesRepositoryOnce() {
+        // Arrange
+        String email = "test@test.com";
+        User user = new User();
+        user.setId(1L);
+        user.setEmail(email);
+        user.setPassword("password123");
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+
+        // Act
+        UserDetails first = userDetailsService.loadUserByUsername(email);
+        UserDetails second = userDetailsService.loadUserByUsername(email);
+
+        // Assert
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByEmail(email);
+        assertEquals(1, userDetailsCache.stats().hitCount());
+        // Only the miss opens a transaction
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    void loadUserByUsername_AfterInvalidate_QueriesRepositoryAgain() {
+        // Arrange
+        String email = "test@test.com";
+        User user = new User();
+        user.setId(1L);
+        user.setEmail(email);
+        user.setPassword("password123");
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+
+        // Act
+        userDetailsService.loadUserByUsername(email);
+        userDetailsCache.invalidate(email);
+        userDetailsService.loadUserByUsername(email);
+
+        // Assert
+        verify(userRepository, times(2)).findByEmail(email);
+    }
+
+    @Test
+    void updatePassword_ShouldStoreHashAndInvalidateCache() {
+        // Arrange
+        String email = "test@test.com";
+        User user = new User();
+        user.setId(1L);
+        user.setEmail(email);
+        user.setPassword("oldHash");
+        user.setAdmin(true);
+
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+
+        // Act
+        UserDetails updated = userDetailsService.updatePassword(userDetails, "newHash");
+
+        // Assert
+        verify(userRepository).updatePassword(email, "newHash");
+        assertEquals("newHash", updated.getPassword());
+        assertEquals(1L, ((UserDetailsImpl) updated).getId());
+        assertTrue(((UserDetailsImpl) updated).getAdmin());
+
+        userDetailsService.loadUserByUsername(email);
+        verify(userRepository, times(2)).findByEmail(email);
+    }
 }
@@ -0,0 +1,153 @@
+package com.openclassrooms.starterjwt.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SessionServiceConcurrencyTest {
+
+    // Enrolments in one session queue on its row lock; the test datasource sets LOCK_TIMEOUT well above the time
+    // this many threads take to go through it
+    private static final int THREADS = 8;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Session> sessions = new ArrayList<>();
+
+    private final List<User> users = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (Session session : sessions) {
+            jdbcTemplate.update("DELETE FROM PARTICIPATE WHERE session_id = ?", session.getId());
+            sessionRepository.deleteById(session.getId());
+        }
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void participate_ConcurrentJoins_ShouldNeitherDuplicateNorOverbook() throws Exception {
+        // Given
+        Session session = createSession(10);
+        for (int i = 0; i < 50; i++) {
+            createUser("concurrent" + i + "@test.com");
+        }
+        List<Long> userIds = new ArrayList<>();
+        for (User user : users) {
+            userIds.add(user.getId());
+        }
+
+        // When
+        Map<String, AtomicInteger> outcomes = joinConcurrently(session.getId(), userIds);
+
+        // Then
+        List<Long> participants = sessionService.findParticipantIds(session.getId());
+        assertEquals(10, participants.size());
+        assertEquals(10, new HashSet<>(participants).size());
+        assertEquals(new HashSet<>(Arrays.asList("ok", "ConflictException")), outcomes.keySet());
+        assertEquals(10, outcomes.get("ok").get());
+        assertEquals(40, outcomes.get("ConflictException").get());
+        assertEquals(10L, sessionRepository.findById(session.getId()).get().getVersion());
+    }
+
+    @Test
+    void participate_ConcurrentJoinsBySameUser_ShouldEnrolOnce() throws Exception {
+        // Given
+        Session session = createSession(null);
+        User user = createUser("same@test.com");
+        List<Long> userIds = Collections.nCopies(200, user.getId());
+
+        // When
+        Map<String, AtomicInteger> outcomes = joinConcurrently(session.getId(), userIds);
+
+        // Then
+        assertEquals(Collections.singletonList(user.getId()), sessionService.findParticipantIds(session.getId()));
+        assertEquals(new HashSet<>(Arrays.asList("ok", "BadRequestException")), outcomes.keySet());
+        assertEquals(1, outcomes.get("ok").get());
+        assertEquals(199, outcomes.get("BadRequestException").get());
+    }
+
+    private Map<String, AtomicInteger> joinConcurrently(Long sessionId, List<Long> userIds) throws Exception {
+        Map<String, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long userId : userIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    String outcome;
+                    try {
+                        sessionService.participate(sessionId, userId);
+                        outcome = "ok";
+                    } catch (RuntimeException e) {
+                        outcome = e.getClass().getSimpleName();
+                    }
+                    outcomes.computeIfAbsent(outcome, key -> new AtomicInteger()).incrementAndGet();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return outcomes;
+    }
+
+    private Session createSession(Integer capacity) {
+        Session session = sessionRepository.save(Session.builder()
+                .name("Concurrent session")
+                .date(new Date())
+                .description("Description")
+                .capacity(capacity)
+                .users(new ArrayList<>())
+                .build());
+        sessions.add(session);
+        return session;
+    }
+
+    private User createUser(String email) {
+        User user = userRepository.save(new User(email, "Last", "First", "password", false));
+        users.add(user);
+        return user;
+    }
+}
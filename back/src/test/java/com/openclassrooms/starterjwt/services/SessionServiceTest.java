@@ -1,28 +1,46 @@
 package com.openclassrooms.starterjwt.services;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionFilter;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 
 class SessionServiceTest {
@@ -33,6 +51,9 @@ class SessionServiceTest {
     @Mock
     private SessionRepository sessionRepository;
 
+    @Mock
+    private TeacherRepository teacherRepository;
+
     @Mock
     private UserRepository userRepository;
 
@@ -44,12 +65,30 @@ class SessionServiceTest {
     @Test
     void createSession() {
         Session session = new Session();
-        when(sessionRepository.save(any(Session.class))).thenReturn(session);
+        when(sessionRepository.saveAndFlush(any(Session.class))).thenReturn(session);
         
         Session result = sessionService.create(session);
         
         assertNotNull(result);
-        verify(sessionRepository).save(session);
+        verify(sessionRepository).saveAndFlush(session);
+    }
+
+    @Test
+    void createSession_MoreUsersThanCapacity_ThrowsBadRequestException() {
+        Session session = Session.builder().capacity(1)
+                .users(Arrays.asList(new User().setId(1L), new User().setId(2L))).build();
+
+        assertThrows(BadRequestException.class, () -> sessionService.create(session));
+        verify(sessionRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void saveAllSessions_NewSessionAboveCapacity_ThrowsBadRequestException() {
+        List<Session> sessions = Collections.singletonList(Session.builder().capacity(1)
+                .users(Arrays.asList(new User().setId(1L), new User().setId(2L))).build());
+
+        assertThrows(BadRequestException.class, () -> sessionService.saveAll(sessions));
+        verify(sessionRepository, never()).saveAllAndFlush(any());
     }
 
     @Test
@@ -65,12 +104,101 @@ class SessionServiceTest {
     @Test
     void findAllSessions() {
         List<Session> sessions = Arrays.asList(new Session(), new Session());
-        when(sessionRepository.findAll()).thenReturn(sessions);
+        when(sessionRepository.findAllWithTeacher()).thenReturn(sessions);
         
         List<Session> result = sessionService.findAll();
         
         assertEquals(2, result.size());
-        verify(sessionRepository).findAll();
+        verify(sessionRepository).findAllWithTeacher();
+    }
+
+    @Test
+    void findPage_FetchesOneExtraRowToDetectNextPage() {
+        SessionFilter filter = SessionFilter.builder().build();
+        when(sessionRepository.findPage(filter, 3)).thenReturn(Arrays.asList(new Session(), new Session(), new Session()));
+
+        Slice<Session> result = sessionService.findPage(filter, 2);
+
+        assertEquals(2, result.getContent().size());
+        assertTrue(result.hasNext());
+    }
+
+    @Test
+    void findPage_LastPage() {
+        SessionFilter filter = SessionFilter.builder().build();
+        when(sessionRepository.findPage(filter, 3)).thenReturn(Collections.singletonList(new Session()));
+
+        Slice<Session> result = sessionService.findPage(filter, 2);
+
+        assertEquals(1, result.getContent().size());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    void streamAll_HandsOutDetachedChunks() {
+        List<Session> sessions = Arrays.asList(
+                Session.builder().id(1L).build(), Session.builder().id(2L).build(), Session.builder().id(3L).build());
+        when(sessionRepository.streamAllWithTeacher()).thenReturn(sessions.stream());
+        when(sessionRepository.findParticipants(Arrays.asList(1L, 2L))).thenReturn(Collections.singletonList(participant(2L, 10L)));
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Map<Long, List<Long>>> participants = new ArrayList<>();
+
+        sessionService.streamAll(2, (chunk, participantIds) -> {
+            chunks.add(chunk.stream().map(Session::getId).collect(Collectors.toList()));
+            participants.add(participantIds);
+        });
+
+        assertEquals(Arrays.asList(Arrays.asList(1L, 2L), Collections.singletonList(3L)), chunks);
+        assertEquals(Collections.singletonList(10L), participants.get(0).get(2L));
+        assertTrue(participants.get(1).isEmpty());
+        verify(sessionRepository).detach(sessions.subList(0, 2));
+        verify(sessionRepository).detach(sessions.subList(2, 3));
+    }
+
+    @Test
+    void streamAll_EmptyTable() {
+        when(sessionRepository.streamAllWithTeacher()).thenReturn(Stream.empty());
+
+        sessionService.streamAll(2, (chunk, participantIds) -> {
+            throw new AssertionError("No chunk expected");
+        });
+
+        verify(sessionRepository, never()).detach(any());
+    }
+
+    @Test
+    void findParticipantIds_GroupsUserIdsBySession() {
+        List<Long> sessionIds = Arrays.asList(1L, 2L, 3L);
+        when(sessionRepository.findParticipants(sessionIds)).thenReturn(Arrays.asList(
+                participant(1L, 10L), participant(1L, 11L), participant(2L, 10L)));
+
+        Map<Long, List<Long>> result = sessionService.findParticipantIds(sessionIds);
+
+        assertEquals(Arrays.asList(10L, 11L), result.get(1L));
+        assertEquals(Collections.singletonList(10L), result.get(2L));
+        assertFalse(result.containsKey(3L));
+    }
+
+    @Test
+    void findParticipantIds_SplitsLargeIdListsIntoBatches() {
+        List<Long> sessionIds = new ArrayList<>();
+        for (long id = 1; id <= 2500; id++) {
+            sessionIds.add(id);
+        }
+        when(sessionRepository.findParticipants(anyList())).thenReturn(Collections.emptyList());
+
+        sessionService.findParticipantIds(sessionIds);
+
+        verify(sessionRepository, times(3)).findParticipants(anyList());
+    }
+
+    @Test
+    void findParticipantIds_ForSingleSession() {
+        when(sessionRepository.findParticipants(Collections.singletonList(1L)))
+                .thenReturn(Collections.singletonList(participant(1L, 10L)));
+
+        assertEquals(Collections.singletonList(10L), sessionService.findParticipantIds(1L));
+        assertTrue(sessionService.findParticipantIds(2L).isEmpty());
     }
 
     @Test
@@ -86,33 +214,235 @@ class SessionServiceTest {
     }
 
     @Test
-    void updateSession() {
+    void updateSession_CopiesEditableFields() {
         Long id = 1L;
-        Session session = new Session();
-        when(sessionRepository.save(any(Session.class))).thenReturn(session);
-        
+        List<User> participants = Collections.singletonList(new User());
+        Session existing = Session.builder().id(id).version(3L).name("Old").capacity(10).users(participants).build();
+        Teacher teacher = new Teacher().setId(9L);
+        Session session = Session.builder().version(3L).name("New").description("Changed").teacher(teacher)
+                .capacity(20).users(Collections.emptyList()).build();
+        when(teacherRepository.existsById(9L)).thenReturn(true);
+        when(sessionRepository.findById(id)).thenReturn(Optional.of(existing));
+        when(sessionRepository.saveAndFlush(existing)).thenReturn(existing);
+
         Session result = sessionService.update(id, session);
-        
-        assertNotNull(result);
-        verify(sessionRepository).save(session);
+
+        assertEquals(existing, result);
+        assertEquals("New", existing.getName());
+        assertEquals("Changed", existing.getDescription());
+        assertEquals(teacher, existing.getTeacher());
+        assertEquals(20, existing.getCapacity());
+        assertEquals(participants, existing.getUsers());
+    }
+
+    @Test
+    void updateSession_WithoutCapacity_KeepsExistingCap() {
+        Long id = 1L;
+        Session existing = Session.builder().id(id).version(3L).capacity(10).build();
+        when(sessionRepository.findById(id)).thenReturn(Optional.of(existing));
+        when(sessionRepository.saveAndFlush(existing)).thenReturn(existing);
+
+        sessionService.update(id, Session.builder().version(3L).name("New").build());
+
+        assertEquals(10, existing.getCapacity());
+    }
+
+    @Test
+    void updateSession_CapacityBelowParticipants_ThrowsBadRequestException() {
+        Long id = 1L;
+        Session existing = Session.builder().id(id).version(3L).capacity(10)
+                .users(Arrays.asList(new User().setId(1L), new User().setId(2L))).build();
+        when(sessionRepository.findById(id)).thenReturn(Optional.of(existing));
+
+        assertThrows(BadRequestException.class, () -> sessionService.update(id, Session.builder().version(3L).capacity(1).build()));
+        assertEquals(10, existing.getCapacity());
+        verify(sessionRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void updateSession_WithoutVersion_ThrowsBadRequestException() {
+        assertThrows(BadRequestException.class, () -> sessionService.update(1L, new Session()));
+        verify(sessionRepository, never()).findById(any());
+    }
+
+    @Test
+    void updateSession_ThrowsNotFoundException() {
+        Long id = 1L;
+        when(sessionRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> sessionService.update(id, Session.builder().version(0L).build()));
+    }
+
+    @Test
+    void saveAllSessions() {
+        List<Session> sessions = Arrays.asList(new Session(), new Session());
+        when(sessionRepository.saveAllAndFlush(sessions)).thenReturn(sessions);
+
+        List<Session> result = sessionService.saveAll(sessions);
+
+        assertEquals(sessions, result);
+        verify(sessionRepository, never()).save(any(Session.class));
+        verify(sessionRepository, never()).findAllWithUsersById(any());
+    }
+
+    @Test
+    void saveAllSessions_LoadsUpdatedSessionsInOneQuery() {
+        List<User> participants = Collections.singletonList(new User());
+        Session existing = Session.builder().id(1L).version(2L).name("Old").capacity(10).users(participants).build();
+        Session update = Session.builder().id(1L).version(2L).name("New").users(Collections.emptyList()).build();
+        Session created = new Session();
+        List<Session> sessions = Arrays.asList(created, update);
+        when(sessionRepository.findAllWithUsersById(Collections.singletonList(1L))).thenReturn(Collections.singletonList(existing));
+        when(sessionRepository.saveAllAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Session> result = sessionService.saveAll(sessions);
+
+        assertSame(created, result.get(0));
+        assertSame(existing, result.get(1));
+        assertEquals("New", existing.getName());
+        assertEquals(10, existing.getCapacity());
+        assertEquals(participants, existing.getUsers());
+        verify(sessionRepository, times(1)).findAllWithUsersById(any());
+    }
+
+    @Test
+    void saveAllSessions_UpdateWithoutVersion_ThrowsBadRequestException() {
+        List<Session> sessions = Collections.singletonList(new Session().setId(1L));
+
+        assertThrows(BadRequestException.class, () -> sessionService.saveAll(sessions));
+        verify(sessionRepository, never()).findAllWithUsersById(any());
+        verify(sessionRepository, never()).saveAllAndFlush(any());
+    }
+
+    @Test
+    void saveAllSessions_CapacityBelowParticipants_ThrowsBadRequestException() {
+        Session existing = Session.builder().id(1L).version(2L).capacity(10)
+                .users(Arrays.asList(new User().setId(1L), new User().setId(2L))).build();
+        List<Session> sessions = Collections.singletonList(Session.builder().id(1L).version(2L).capacity(1).build());
+        when(sessionRepository.findAllWithUsersById(any())).thenReturn(Collections.singletonList(existing));
+
+        assertThrows(BadRequestException.class, () -> sessionService.saveAll(sessions));
+        assertEquals(10, existing.getCapacity());
+        verify(sessionRepository, never()).saveAllAndFlush(any());
+    }
+
+    @Test
+    void saveAllSessions_UnknownSession_ThrowsNotFoundException() {
+        List<Session> sessions = Collections.singletonList(new Session().setId(1L).setVersion(0L));
+        when(sessionRepository.findAllWithUsersById(any())).thenReturn(Collections.emptyList());
+
+        assertThrows(NotFoundException.class, () -> sessionService.saveAll(sessions));
+        verify(sessionRepository, never()).saveAllAndFlush(any());
+    }
+
+    @Test
+    void saveAllSessions_StaleVersion_ThrowsConflictException() {
+        List<Session> sessions = Collections.singletonList(new Session().setId(1L).setVersion(0L));
+        when(sessionRepository.findAllWithUsersById(any()))
+                .thenReturn(Collections.singletonList(new Session().setId(1L).setVersion(1L)));
+
+        assertThrows(ConflictException.class, () -> sessionService.saveAll(sessions));
+        verify(sessionRepository, never()).saveAllAndFlush(any());
+    }
+
+    @Test
+    void saveAllSessions_ConcurrentUpdate_ThrowsConflictException() {
+        List<Session> sessions = Collections.singletonList(new Session().setId(1L).setVersion(1L));
+        when(sessionRepository.findAllWithUsersById(any()))
+                .thenReturn(Collections.singletonList(new Session().setId(1L).setVersion(1L)));
+        when(sessionRepository.saveAllAndFlush(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Session.class, 1L));
+
+        assertThrows(ConflictException.class, () -> sessionService.saveAll(sessions));
+    }
+
+    @Test
+    void findVersions() {
+        SessionRepository.SessionVersion version = new SessionRepository.SessionVersion() {
+            @Override
+            public Long getId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getVersion() {
+                return 4L;
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return null;
+            }
+        };
+        when(sessionRepository.findVersions(Collections.singleton(1L))).thenReturn(Collections.singletonList(version));
+        when(sessionRepository.findVersions(Collections.singletonList(1L))).thenReturn(Collections.singletonList(version));
+
+        assertEquals(Collections.singletonMap(1L, 4L), sessionService.findVersions(Collections.singleton(1L)));
+        assertTrue(sessionService.findVersions(Collections.emptyList()).isEmpty());
+        assertEquals(version, sessionService.findVersion(1L));
+        assertNull(sessionService.findVersion(2L));
+    }
+
+    @Test
+    void createSession_UnknownTeacher_ThrowsBadRequestException() {
+        Session session = Session.builder().teacher(new Teacher().setId(9L)).build();
+        when(teacherRepository.existsById(9L)).thenReturn(false);
+
+        assertThrows(BadRequestException.class, () -> sessionService.create(session));
+        verify(sessionRepository, never()).saveAndFlush(any(Session.class));
+    }
+
+    @Test
+    void createSession_KnownTeacher() {
+        Session session = Session.builder().teacher(new Teacher().setId(9L)).build();
+        when(teacherRepository.existsById(9L)).thenReturn(true);
+        when(sessionRepository.saveAndFlush(session)).thenReturn(session);
+
+        assertEquals(session, sessionService.create(session));
+    }
+
+    @Test
+    void updateSession_UnknownTeacher_ThrowsBadRequestException() {
+        Session session = Session.builder().version(1L).teacher(new Teacher().setId(9L)).build();
+        when(teacherRepository.existsById(9L)).thenReturn(false);
+
+        assertThrows(BadRequestException.class, () -> sessionService.update(1L, session));
+        verify(sessionRepository, never()).saveAndFlush(any(Session.class));
+    }
+
+    @Test
+    void updateSession_StaleVersion_ThrowsConflictException() {
+        Long id = 1L;
+        when(sessionRepository.findById(id)).thenReturn(Optional.of(Session.builder().id(id).version(2L).build()));
+
+        assertThrows(ConflictException.class, () -> sessionService.update(id, Session.builder().version(1L).build()));
+        verify(sessionRepository, never()).saveAndFlush(any(Session.class));
+    }
+
+    @Test
+    void updateSession_ConcurrentEdit_ThrowsConflictException() {
+        Long id = 1L;
+        Session existing = Session.builder().id(id).version(1L).build();
+        when(sessionRepository.findById(id)).thenReturn(Optional.of(existing));
+        when(sessionRepository.saveAndFlush(existing))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Session.class, id));
+
+        assertThrows(ConflictException.class, () -> sessionService.update(id, Session.builder().version(1L).build()));
     }
 
     @Test
     void participate_Success() {
         Long sessionId = 1L;
         Long userId = 1L;
-        Session session = new Session();
-        session.setUsers(new ArrayList<>());
-        User user = new User();
-        user.setId(userId);
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(sessionRepository.save(any(Session.class))).thenReturn(session);
+        when(sessionRepository.incrementVersion(sessionId)).thenReturn(1);
+        when(sessionRepository.addParticipant(sessionId, userId)).thenReturn(1);
 
         sessionService.participate(sessionId, userId);
 
-        verify(sessionRepository).save(session);
+        verify(sessionRepository).addParticipant(sessionId, userId);
+        verify(sessionRepository, never()).findById(any());
+        verify(sessionRepository, never()).save(any(Session.class));
     }
 
     @Test
@@ -120,8 +450,20 @@ class SessionServiceTest {
         Long sessionId = 1L;
         Long userId = 1L;
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(sessionRepository.incrementVersion(sessionId)).thenReturn(0);
+
+        assertThrows(NotFoundException.class, () -> sessionService.participate(sessionId, userId));
+        verify(sessionRepository, never()).addParticipant(any(), any());
+    }
+
+    @Test
+    void participate_UnknownUser_ThrowsNotFoundException() {
+        Long sessionId = 1L;
+        Long userId = 1L;
+
+        when(sessionRepository.incrementVersion(sessionId)).thenReturn(1);
+        when(sessionRepository.addParticipant(sessionId, userId)).thenReturn(0);
+        when(userRepository.existsById(userId)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> sessionService.participate(sessionId, userId));
     }
@@ -130,32 +472,40 @@ class SessionServiceTest {
     void participate_ThrowsBadRequestException() {
         Long sessionId = 1L;
         Long userId = 1L;
-        Session session = new Session();
-        User user = new User();
-        user.setId(userId);
-        session.setUsers(new ArrayList<>(Arrays.asList(user)));
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(sessionRepository.incrementVersion(sessionId)).thenReturn(1);
+        when(sessionRepository.addParticipant(sessionId, userId)).thenReturn(0);
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(sessionRepository.countParticipant(sessionId, userId)).thenReturn(1L);
 
         assertThrows(BadRequestException.class, () -> sessionService.participate(sessionId, userId));
     }
 
+    @Test
+    void participate_FullSession_ThrowsConflictException() {
+        Long sessionId = 1L;
+        Long userId = 1L;
+
+        when(sessionRepository.incrementVersion(sessionId)).thenReturn(1);
+        when(sessionRepository.addParticipant(sessionId, userId)).thenReturn(0);
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(sessionRepository.countParticipant(sessionId, userId)).thenReturn(0L);
+
+        assertThrows(ConflictException.class, () -> sessionService.participate(sessionId, userId));
+    }
+
     @Test
     void noLongerParticipate_Success() {
         Long sessionId = 1L;
         Long userId = 1L;
-        Session session = new Session();
-        User user = new User();
-        user.setId(userId);
-        session.setUsers(new ArrayList<>(Arrays.asList(user)));
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(sessionRepository.save(any(Session.class))).thenReturn(session);
+        when(sessionRepository.incrementVersion(sessionId)).thenReturn(1);
+        when(sessionRepository.removeParticipant(sessionId, userId)).thenReturn(1);
 
         sessionService.noLongerParticipate(sessionId, userId);
 
-        verify(sessionRepository).save(session);
+        verify(sessionRepository).removeParticipant(sessionId, userId);
+        verify(sessionRepository, never()).save(any(Session.class));
     }
 
     @Test
@@ -163,20 +513,34 @@ class SessionServiceTest {
         Long sessionId = 1L;
         Long userId = 1L;
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+        when(sessionRepository.incrementVersion(sessionId)).thenReturn(0);
 
         assertThrows(NotFoundException.class, () -> sessionService.noLongerParticipate(sessionId, userId));
+        verify(sessionRepository, never()).removeParticipant(any(), any());
     }
 
     @Test
     void noLongerParticipate_ThrowsBadRequestException() {
         Long sessionId = 1L;
         Long userId = 1L;
-        Session session = new Session();
-        session.setUsers(new ArrayList<>());
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+        when(sessionRepository.incrementVersion(sessionId)).thenReturn(1);
+        when(sessionRepository.removeParticipant(sessionId, userId)).thenReturn(0);
 
         assertThrows(BadRequestException.class, () -> sessionService.noLongerParticipate(sessionId, userId));
     }
+
+    private static SessionRepository.Participant participant(Long sessionId, Long userId) {
+        return new SessionRepository.Participant() {
+            @Override
+            public Long getSessionId() {
+                return sessionId;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+        };
+    }
 }
@@ -1,16 +1,23 @@
 package com.openclassrooms.starterjwt.services;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
@@ -66,4 +73,29 @@ class TeacherServiceTest {
         assertNull(result);
         verify(teacherRepository).findById(teacherId);
     }
+
+    @Test
+    void getReference() {
+        Long teacherId = 1L;
+        Teacher reference = new Teacher();
+        when(teacherRepository.getById(teacherId)).thenReturn(reference);
+
+        Teacher result = teacherService.getReference(teacherId);
+
+        assertSame(reference, result);
+        verify(teacherRepository, never()).findById(any());
+    }
+
+    @Test
+    void findByIds_KeysTeachersById() {
+        Teacher teacher = new Teacher();
+        teacher.setId(1L);
+        when(teacherRepository.findAllById(any())).thenReturn(Collections.singletonList(teacher));
+
+        Map<Long, Teacher> result = teacherService.findByIds(Arrays.asList(1L, 2L, 1L));
+
+        assertEquals(Collections.singletonMap(1L, teacher), result);
+        verify(teacherRepository, times(1)).findAllById(any());
+        assertTrue(teacherService.findByIds(Collections.emptyList()).isEmpty());
+    }
 }
@@ -1,16 +1,25 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtRevocationService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 class UserServiceTest {
@@ -21,6 +30,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private JwtRevocationService revocationService;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -29,11 +44,27 @@ class UserServiceTest {
     @Test
     void delete() {
         Long userId = 1L;
-        doNothing().when(userRepository).deleteById(userId);
+        User user = new User();
+        user.setId(userId);
+        user.setEmail("test@test.com");
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        userService.delete(userId);
+
+        verify(userRepository).delete(user);
+        verify(revocationService).revokeAll(userId);
+        verify(userDetailsCache).invalidate("test@test.com");
+    }
+
+    @Test
+    void delete_WhenUserNotFound_DoesNothing() {
+        Long userId = 1L;
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
         userService.delete(userId);
 
-        verify(userRepository).deleteById(userId);
+        verify(userRepository, never()).delete(any(User.class));
+        verify(revocationService, never()).revokeAll(anyLong());
     }
 
     @Test
@@ -58,4 +89,50 @@ class UserServiceTest {
         assertNull(result);
         verify(userRepository).findById(userId);
     }
+
+    @Test
+    void findAllById_KeepsRequestedOrderWithoutDuplicates() {
+        User first = new User();
+        first.setId(1L);
+        User second = new User();
+        second.setId(2L);
+        when(userRepository.findAllById(any())).thenReturn(Arrays.asList(first, second));
+
+        List<User> result = userService.findAllById(Arrays.asList(2L, 1L, 2L));
+
+        assertEquals(Arrays.asList(second, first), result);
+        verify(userRepository, times(1)).findAllById(any());
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void findAllById_ReportsMissingIds() {
+        User first = new User();
+        first.setId(1L);
+        when(userRepository.findAllById(any())).thenReturn(Collections.singletonList(first));
+
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> userService.findAllById(Arrays.asList(1L, 7L, 9L)));
+
+        assertEquals("Unknown user ids: [7, 9]", exception.getMessage());
+    }
+
+    @Test
+    void findAllById_EmptyIds() {
+        assertTrue(userService.findAllById(Collections.emptyList()).isEmpty());
+        verify(userRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void findByIds_LeavesUnknownIdsOut() {
+        User first = new User();
+        first.setId(1L);
+        when(userRepository.findAllById(any())).thenReturn(Collections.singletonList(first));
+
+        Map<Long, User> result = userService.findByIds(Arrays.asList(1L, 7L));
+
+        assertEquals(Collections.singletonMap(1L, first), result);
+        assertTrue(userService.findByIds(Collections.emptyList()).isEmpty());
+        verify(userRepository, times(1)).findAllById(any());
+    }
 }
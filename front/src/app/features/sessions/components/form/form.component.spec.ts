@@ -147,6 +147,14 @@ describe('FormComponent', () => {
     expect(router.navigate).toHaveBeenCalledWith(['sessions']);
   });
 
+  it('should send back the version of the loaded session on update', () => {
+    sessionApiService.detail.mockReturnValue(of({ ...mockSession, version: 3 } as any));
+    jest.spyOn(router, 'url', 'get').mockReturnValue('/sessions/update/1');
+    component.ngOnInit();
+    component.submit();
+    expect(sessionApiService.update).toHaveBeenCalledWith('1', { ...mockSession, version: 3 });
+  });
+
   it('should validate required fields', () => {
     jest.spyOn(router, 'url', 'get').mockReturnValue('/sessions/create');
     component.ngOnInit();
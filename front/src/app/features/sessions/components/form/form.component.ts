@@ -18,6 +18,7 @@ export class FormComponent implements OnInit {
   public sessionForm: FormGroup | undefined;
   public teachers$ = this.teacherService.all();
   private id: string | undefined;
+  private version: number | undefined;
 
   constructor(
     private route: ActivatedRoute,
@@ -55,12 +56,14 @@ export class FormComponent implements OnInit {
         .subscribe((_: Session) => this.exitPage('Session created !'));
     } else {
       this.sessionApiService
-        .update(this.id!, session)
+        .update(this.id!, { ...session, version: this.version })
         .subscribe((_: Session) => this.exitPage('Session updated !'));
     }
   }
 
   private initForm(session?: Session): void {
+    // Sent back on update so the server rejects the edit if the session changed since it was loaded
+    this.version = session?.version;
     this.sessionForm = this.fb.group({
       name: [
         session ? session.name : '',